@@ -11,6 +11,8 @@ plugins {
     id("org.jetbrains.changelog") version "1.3.1"
     // Gradle Qodana Plugin
     id("org.jetbrains.qodana") version "0.1.13"
+    // JMH benchmarks for the style checks
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = properties("pluginGroup")
@@ -45,6 +47,19 @@ changelog {
     groups.set(emptyList())
 }
 
+// Benchmarks of the style checks, in src/jmh - run with ./gradlew jmh
+// Pass e.g. -PjmhIncludes=ChecksBenchmark -PjmhParams=check=InternalComments to narrow a run.
+jmh {
+    jmhVersion.set("1.37")
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    findProperty("jmhIncludes")?.let { includes.add(it.toString()) }
+    findProperty("jmhParams")?.toString()?.split(';')?.forEach {
+        val (name, values) = it.split('=', limit = 2)
+        benchmarkParameters.put(name, objects.listProperty<String>().value(values.split(',')))
+    }
+}
+
 // Configure Gradle Qodana Plugin - read more: https://github.com/JetBrains/gradle-qodana-plugin
 qodana {
     cachePath.set(projectDir.resolve(".qodana").canonicalPath)
@@ -58,6 +73,32 @@ tasks {
         gradleVersion = properties("gradleVersion")
     }
 
+    // Headless batch style checker, e.g.
+    // ./gradlew checkStyleBatch --args="-j 16 -o results sp25 @submissions.txt"
+    register<JavaExec>("checkStyleBatch") {
+        description = "Runs the style checker over submission directories without the IDE."
+        classpath = sourceSets["main"].runtimeClasspath
+        mainClass.set("edu.berkeley.cs61b.plugin.StyleBatch")
+    }
+
+    // Fails if a custom check allocates more per line than its budget in
+    // src/jmh/resources/benchmark/allocation-budgets.properties; -PrecordAllocationBudgets rewrites the budgets.
+    register<JavaExec>("checkAllocations") {
+        description = "Checks the bytes each custom style check allocates against its budget."
+        group = "verification"
+        classpath = sourceSets["jmh"].runtimeClasspath
+        mainClass.set("edu.berkeley.cs61b.plugin.AllocationBudgets")
+        val budgets = projectDir.resolve("src/jmh/resources/benchmark/allocation-budgets.properties")
+        args(budgets.path)
+        if (project.hasProperty("recordAllocationBudgets")) {
+            args("--record")
+        }
+    }
+
+    check {
+        dependsOn("checkAllocations")
+    }
+
     patchPluginXml {
         version.set(properties("pluginVersion"))
         sinceBuild.set(properties("pluginSinceBuild"))
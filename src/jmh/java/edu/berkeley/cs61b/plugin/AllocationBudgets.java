@@ -0,0 +1,182 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+
+/**
+ * Allocation regression check for the custom 61B checks.
+ *
+ * Runs each of {@link BenchmarkChecks#CUSTOM_CHECKS}, as the sp20 config sets it up,
+ * over all of {@link BenchmarkInputs}. The bytes it allocates per thousand lines
+ * are read from the current thread's allocation counter. Most of those bytes are the
+ * TreeWalker parsing the file, so the same figure for a TreeWalker running only
+ * {@link NoCheck} is measured too and subtracted; what is left is the check's own.
+ * That number is compared with the check's budget in the budgets file, and the run
+ * fails if any check is over budget. A check with no budget is reported but does not
+ * fail.
+ *
+ * With --record, the budgets file is rewritten instead: each check's budget becomes
+ * what it allocates now plus {@link #HEADROOM_PERCENT}, or plus {@link #MIN_HEADROOM}
+ * if that is more. Record after an intended
+ * change in allocation, and commit the file with the change.
+ *
+ * Usage: AllocationBudgets budgets-file [--record]
+ */
+public class AllocationBudgets {
+	private static final String USAGE = "usage: AllocationBudgets budgets-file [--record]";
+	/** Members in each generated input. */
+	private static final int INPUT_SIZE = 200;
+	/** Passes over the inputs before measuring, so the JIT has settled. */
+	private static final int WARMUP_PASSES = 50;
+	/** Measured rounds; the lowest is kept, as noise only ever adds allocation. */
+	private static final int ROUNDS = 5;
+	private static final int PASSES_PER_ROUND = 10;
+	/** Room for JIT and JDK differences between machines when recording budgets. */
+	private static final int HEADROOM_PERCENT = 20;
+	/**
+	 * Least room, in bytes per thousand lines, for checks that allocate next to nothing:
+	 * the parsing figure subtracted from every check varies by about this much between runs.
+	 */
+	private static final long MIN_HEADROOM = 100_000;
+
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	private AllocationBudgets() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1 || args.length > 2 || (args.length == 2 && !args[1].equals("--record"))) {
+			System.err.println(USAGE);
+			System.exit(2);
+		}
+		Path budgetsFile = Paths.get(args[0]);
+		boolean record = args.length == 2;
+		if (!THREADS.isThreadAllocatedMemorySupported()) {
+			System.err.println("This JVM does not count allocated bytes per thread.");
+			System.exit(2);
+		}
+		THREADS.setThreadAllocatedMemoryEnabled(true);
+
+		List<StyleChecker.Source> sources = new ArrayList<>();
+		for (String input : List.of(BenchmarkInputs.TYPICAL, BenchmarkInputs.JAVADOC_HEAVY,
+				BenchmarkInputs.COMMENT_HEAVY, BenchmarkInputs.LITERAL_HEAVY)) {
+			sources.addAll(BenchmarkChecks.sources(input, INPUT_SIZE));
+		}
+		int lines = BenchmarkChecks.lineCount(sources);
+
+		long parseOnly = bytesPerThousandLines(BenchmarkChecks.newBaselineChecker(false), sources, lines);
+		long parseWithComments = bytesPerThousandLines(BenchmarkChecks.newBaselineChecker(true), sources, lines);
+		System.out.printf("TreeWalker alone: %d bytes/1k lines, %d with comment nodes%n",
+				parseOnly, parseWithComments);
+
+		Map<String, Long> measured = new LinkedHashMap<>();
+		for (String check : BenchmarkChecks.CUSTOM_CHECKS) {
+			long baseline = BenchmarkChecks.needsCommentNodes(check) ? parseWithComments : parseOnly;
+			long bytes = bytesPerThousandLines(BenchmarkChecks.newChecker(check), sources, lines);
+			measured.put(check, Math.max(0, bytes - baseline));
+		}
+
+		if (record) {
+			writeBudgets(budgetsFile, measured);
+			System.out.println("Recorded allocation budgets in " + budgetsFile);
+			return;
+		}
+
+		Properties budgets = readBudgets(budgetsFile);
+		List<String> over = new ArrayList<>();
+		System.out.printf("%-20s %14s %14s%n", "check", "own bytes/1k", "budget");
+		for (Map.Entry<String, Long> entry : measured.entrySet()) {
+			String check = entry.getKey();
+			long bytes = entry.getValue();
+			String budget = budgets.getProperty(check);
+			String verdict = "";
+			if (budget == null) {
+				verdict = "  (no budget)";
+			} else if (bytes > Long.parseLong(budget.trim())) {
+				verdict = "  OVER BUDGET";
+				over.add(check);
+			}
+			System.out.printf("%-20s %14d %14s%s%n", check, bytes, budget == null ? "-" : budget.trim(), verdict);
+		}
+		if (!over.isEmpty()) {
+			System.err.println("Allocation over budget for " + String.join(", ", over)
+					+ ". If this is intended, rerun with --record and commit " + budgetsFile + ".");
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Returns the bytes checker allocates per thousand lines of sources, in the
+	 * least-allocating of several rounds, and destroys it.
+	 */
+	private static long bytesPerThousandLines(StyleChecker checker, List<StyleChecker.Source> sources, int lines)
+			throws IOException, CheckstyleException {
+		try {
+			for (int i = 0; i < WARMUP_PASSES; i++) {
+				checker.processSources(sources);
+			}
+			long least = Long.MAX_VALUE;
+			for (int round = 0; round < ROUNDS; round++) {
+				long before = THREADS.getCurrentThreadAllocatedBytes();
+				for (int i = 0; i < PASSES_PER_ROUND; i++) {
+					checker.processSources(sources);
+				}
+				long allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+				least = Math.min(least, allocated * 1000 / ((long) lines * PASSES_PER_ROUND));
+			}
+			return least;
+		} finally {
+			checker.destroy();
+		}
+	}
+
+	private static Properties readBudgets(Path file) throws IOException {
+		Properties budgets = new Properties();
+		if (Files.exists(file)) {
+			try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+				budgets.load(in);
+			}
+		}
+		return budgets;
+	}
+
+	/**
+	 * Writes a budget of measured plus headroom for each check, keeping the comments
+	 * at the top of the file.
+	 */
+	private static void writeBudgets(Path file, Map<String, Long> measured) throws IOException {
+		List<String> out = new ArrayList<>();
+		if (Files.exists(file)) {
+			for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+				if (!line.startsWith("#") && !line.trim().isEmpty()) {
+					break;
+				}
+				out.add(line);
+			}
+		}
+		while (!out.isEmpty() && out.get(out.size() - 1).trim().isEmpty()) {
+			out.remove(out.size() - 1);
+		}
+		if (!out.isEmpty()) {
+			out.add("");
+		}
+		for (Map.Entry<String, Long> entry : measured.entrySet()) {
+			long bytes = entry.getValue();
+			out.add(entry.getKey() + "=" + (bytes + Math.max(bytes * HEADROOM_PERCENT / 100, MIN_HEADROOM)));
+		}
+		Files.write(file, out, StandardCharsets.UTF_8);
+	}
+}
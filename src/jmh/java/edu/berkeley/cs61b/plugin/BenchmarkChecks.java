@@ -0,0 +1,160 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+
+/**
+ * Checkers and sources for the style check benchmarks: a checker running one of the
+ * custom 61B checks as the sp20 config sets it up, or the whole sp20 TreeWalker, and
+ * the inputs of {@link BenchmarkInputs} as ready-to-check sources.
+ */
+class BenchmarkChecks {
+	/** Name of the "check" that runs the whole sp20 TreeWalker instead of a single check. */
+	static final String ALL_CHECKS = "TreeWalker";
+	/** The checks in ucb.checkstyle.checks that the sp20 config uses. */
+	static final List<String> CUSTOM_CHECKS = List.of("JavadocMethod61b", "JavadocType61b", "JavadocVariable61b",
+			"InternalComments", "MagicNumber61b", "InnerAssignment61b");
+
+	private static final String CHECKS_PACKAGE = "ucb.checkstyle.checks.";
+
+	private BenchmarkChecks() {
+	}
+
+	/**
+	 * Returns a checker that runs check, one of {@link #CUSTOM_CHECKS} or {@link #ALL_CHECKS}.
+	 */
+	static StyleChecker newChecker(String check) throws IOException, CheckstyleException {
+		Configuration sp20 = StyleConfigCache.get("sp20").getConfiguration();
+		StyleChecker checker = new StyleChecker();
+		checker.setModuleClassLoader(Checker.class.getClassLoader());
+		checker.configure(ALL_CHECKS.equals(check) ? treeWalkerOnly(sp20) : singleCheck(sp20, check));
+		return checker;
+	}
+
+	/**
+	 * Returns a checker with a TreeWalker set up like sp20's that runs only {@link NoCheck},
+	 * so it parses and walks each file but checks nothing.
+	 */
+	static StyleChecker newBaselineChecker(boolean commentNodes) throws IOException, CheckstyleException {
+		Configuration sp20 = StyleConfigCache.get("sp20").getConfiguration();
+		DefaultConfiguration noCheck = new DefaultConfiguration(NoCheck.class.getName());
+		noCheck.addProperty("commentNodesRequired", String.valueOf(commentNodes));
+		DefaultConfiguration walker = emptyTreeWalker(sp20);
+		walker.addChild(noCheck);
+		DefaultConfiguration config = new DefaultConfiguration(sp20.getName());
+		config.addChild(walker);
+		StyleChecker checker = new StyleChecker();
+		checker.setModuleClassLoader(Checker.class.getClassLoader());
+		checker.configure(config);
+		return checker;
+	}
+
+	/**
+	 * Returns whether check, one of {@link #CUSTOM_CHECKS}, needs comment nodes in the tree.
+	 */
+	static boolean needsCommentNodes(String check) throws ReflectiveOperationException {
+		Class<?> type = Class.forName(CHECKS_PACKAGE + check + "Check");
+		return ((AbstractCheck) type.getDeclaredConstructor().newInstance()).isCommentNodesRequired();
+	}
+
+	/**
+	 * Returns input name, with about size members where it is generated, as a single
+	 * source whose text is read ahead of time.
+	 */
+	static List<StyleChecker.Source> sources(String name, int size) throws IOException {
+		List<String> lines = StyleChecker.splitLines(BenchmarkInputs.get(name, size));
+		File file = new File("benchmark", name + ".java");
+		return Collections.singletonList(new TextSource(file, new FileText(file, lines)));
+	}
+
+	/**
+	 * Returns the number of lines in sources.
+	 */
+	static int lineCount(List<StyleChecker.Source> sources) throws IOException {
+		int lines = 0;
+		for (StyleChecker.Source source : sources) {
+			lines += source.load().size();
+		}
+		return lines;
+	}
+
+	/**
+	 * Returns a config with only the TreeWalker of root, leaving out the file-level
+	 * checks and the suppression filter.
+	 */
+	private static Configuration treeWalkerOnly(Configuration root) throws CheckstyleException {
+		DefaultConfiguration result = new DefaultConfiguration(root.getName());
+		result.addChild(findTreeWalker(root));
+		return result;
+	}
+
+	/**
+	 * Returns a config with a TreeWalker, set up like root's, that runs only the named
+	 * 61B check, with the properties it has in root.
+	 */
+	private static Configuration singleCheck(Configuration root, String name) throws CheckstyleException {
+		DefaultConfiguration walker = emptyTreeWalker(root);
+		for (Configuration child : findTreeWalker(root).getChildren()) {
+			if (child.getName().equals(CHECKS_PACKAGE + name + "Check")) {
+				walker.addChild(child);
+			}
+		}
+		if (walker.getChildren().length == 0) {
+			throw new IllegalArgumentException("sp20 config has no check " + name);
+		}
+		DefaultConfiguration result = new DefaultConfiguration(root.getName());
+		result.addChild(walker);
+		return result;
+	}
+
+	/**
+	 * Returns a TreeWalker with the properties of root's, but no checks.
+	 */
+	private static DefaultConfiguration emptyTreeWalker(Configuration root) throws CheckstyleException {
+		Configuration treeWalker = findTreeWalker(root);
+		DefaultConfiguration walker = new DefaultConfiguration(treeWalker.getName());
+		for (String property : treeWalker.getPropertyNames()) {
+			walker.addProperty(property, treeWalker.getProperty(property));
+		}
+		return walker;
+	}
+
+	private static Configuration findTreeWalker(Configuration root) {
+		for (Configuration child : root.getChildren()) {
+			if (child.getName().equals("TreeWalker")) {
+				return child;
+			}
+		}
+		throw new IllegalArgumentException("config has no TreeWalker");
+	}
+
+	/** A file whose text was read ahead of time. */
+	private static class TextSource implements StyleChecker.Source {
+		private final File file;
+		private final FileText text;
+
+		TextSource(File file, FileText text) {
+			this.file = file;
+			this.text = text;
+		}
+
+		@Override
+		public File getFile() {
+			return file;
+		}
+
+		@Override
+		public FileText load() {
+			return text;
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Java sources for the style check benchmarks.
+ *
+ * "typical" is a real-looking student file. The others are generated, and each leans
+ * on what one group of checks spends its time on: long narrative Javadoc that names
+ * many parameters, internal comments in every context, or numeric literals and nested
+ * assignments.
+ */
+class BenchmarkInputs {
+	static final String TYPICAL = "typical";
+	static final String JAVADOC_HEAVY = "javadoc-heavy";
+	static final String COMMENT_HEAVY = "comment-heavy";
+	static final String LITERAL_HEAVY = "literal-heavy";
+
+	private BenchmarkInputs() {
+	}
+
+	/**
+	 * Returns the text of input name, with about size members where it is generated.
+	 */
+	static String get(String name, int size) throws IOException {
+		switch (name) {
+			case TYPICAL:
+				return readResource("benchmark/Typical.java");
+			case JAVADOC_HEAVY:
+				return javadocHeavy(size);
+			case COMMENT_HEAVY:
+				return commentHeavy(size);
+			case LITERAL_HEAVY:
+				return literalHeavy(size);
+			default:
+				throw new IllegalArgumentException("unknown benchmark input: " + name);
+		}
+	}
+
+	/** Methods with many parameters, described in prose rather than with @param tags. */
+	private static String javadocHeavy(int size) {
+		StringBuilder sb = header("JavadocHeavy", "A class whose methods are documented in prose.");
+		for (int i = 0; i < size; i++) {
+			sb.append("    /** Returns the combination of ALPHA").append(i).append(" and BETA").append(i)
+					.append(", scaled by\n")
+					.append("     *  GAMMA").append(i).append(". If DELTA").append(i)
+					.append(" is true, the result is negated; otherwise it\n")
+					.append("     *  is returned as is. EPSILON").append(i)
+					.append(" is ignored, but ZETA").append(i).append(" and ETA").append(i).append(" are\n")
+					.append("     *  added to the total before it is returned.\n")
+					.append("     *  @throws IllegalArgumentException if GAMMA").append(i).append(" is negative.\n")
+					.append("     */\n")
+					.append("    public int combine").append(i).append("(int alpha").append(i)
+					.append(", int beta").append(i).append(",\n")
+					.append("            int gamma").append(i).append(", boolean delta").append(i)
+					.append(", int epsilon").append(i).append(",\n")
+					.append("            int zeta").append(i).append(", int eta").append(i).append(") {\n")
+					.append("        int total = (alpha").append(i).append(" + beta").append(i)
+					.append(") * gamma").append(i).append(" + zeta").append(i).append(" + eta").append(i)
+					.append(";\n")
+					.append("        return delta").append(i).append(" ? -total : total;\n")
+					.append("    }\n\n");
+			sb.append("    /** The ").append(i).append("th cached total, or 0 if it was not computed. */\n")
+					.append("    private int total").append(i).append(";\n\n");
+		}
+		return sb.append("}\n").toString();
+	}
+
+	/** Methods with line and block comments before, between and after their statements. */
+	private static String commentHeavy(int size) {
+		StringBuilder sb = header("CommentHeavy", "A class full of internal comments.");
+		for (int i = 0; i < size; i++) {
+			sb.append("    // Helper number ").append(i).append(".\n")
+					.append("    /** Returns the sum of the first N squares, N >= 0. */\n")
+					.append("    static int squares").append(i).append("(int n) {\n")
+					.append("        // Accumulates the result.\n")
+					.append("        int sum = 0;\n")
+					.append("        /* Counts up from 0. */\n")
+					.append("        for (int k = 0; k < n; k += 1) {\n")
+					.append("            sum += k * k; // add the next square\n")
+					.append("            switch (k % 2) {\n")
+					.append("            case 0:\n")
+					.append("                sum += 1;\n")
+					.append("                /* fall through */\n")
+					.append("            default:\n")
+					.append("                sum -= 1; /* net zero */\n")
+					.append("            }\n")
+					.append("        }\n")
+					.append("        // Done.\n")
+					.append("        return sum;\n")
+					.append("    }\n\n");
+		}
+		return sb.append("}\n").toString();
+	}
+
+	/** Fields and methods full of numeric literals, with assignments nested in expressions. */
+	private static String literalHeavy(int size) {
+		StringBuilder sb = header("LiteralHeavy", "A class full of numbers.");
+		for (int i = 0; i < size; i++) {
+			sb.append("    /** Table ").append(i).append(". */\n")
+					.append("    private static final int[] TABLE").append(i)
+					.append(" = { 17, 42, 99, 365, 1000, 1024, 65536, -273 };\n\n")
+					.append("    /** Scales X in a few ways. */\n")
+					.append("    static double scale").append(i).append("(double x) {\n")
+					.append("        int a, b, c;\n")
+					.append("        a = b = c = 7;\n")
+					.append("        double y = x * 3.14159 + 2.71828 / 1.41421 - 0.5;\n")
+					.append("        while ((a = a * 37 % 101) != 1 && (b = b + 19) < 1000) {\n")
+					.append("            y += a * 0.001 + b * 1e-6 + (c += 13) * 0x1F;\n")
+					.append("        }\n")
+					.append("        return y * 86400 + 3600L * 24 + 0.75;\n")
+					.append("    }\n\n");
+		}
+		return sb.append("}\n").toString();
+	}
+
+	private static StringBuilder header(String className, String doc) {
+		return new StringBuilder("package benchmark;\n\n")
+				.append("/** ").append(doc).append("\n *  @author CS 61B Staff\n */\n")
+				.append("public class ").append(className).append(" {\n\n");
+	}
+
+	private static String readResource(String name) throws IOException {
+		try (InputStream in = BenchmarkInputs.class.getClassLoader().getResourceAsStream(name)) {
+			if (in == null) {
+				throw new IOException("benchmark input not found: " + name);
+			}
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+}
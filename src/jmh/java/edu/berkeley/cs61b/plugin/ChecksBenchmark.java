@@ -0,0 +1,78 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+
+/**
+ * Throughput of the custom 61B checks, each on its own and together with the rest of
+ * the sp20 TreeWalker, over the inputs in {@link BenchmarkInputs}.
+ *
+ * Each operation checks one file. The "lines" counter turns that into lines per
+ * second, and running with the gc profiler (the default in build.gradle.kts) adds
+ * the bytes allocated per operation for each check and input.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChecksBenchmark {
+	@Param({"JavadocMethod61b", "JavadocType61b", "JavadocVariable61b", "InternalComments",
+			"MagicNumber61b", "InnerAssignment61b", BenchmarkChecks.ALL_CHECKS})
+	public String check;
+
+	@Param({BenchmarkInputs.TYPICAL, BenchmarkInputs.JAVADOC_HEAVY, BenchmarkInputs.COMMENT_HEAVY,
+			BenchmarkInputs.LITERAL_HEAVY})
+	public String input;
+
+	/** Number of members in each generated input. */
+	@Param("200")
+	public int size;
+
+	private StyleChecker checker;
+	private List<StyleChecker.Source> sources;
+	private int lineCount;
+
+	/** Lines checked, reported by JMH as lines per second. */
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Lines {
+		public long lines;
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		checker = BenchmarkChecks.newChecker(check);
+		sources = BenchmarkChecks.sources(input, size);
+		lineCount = BenchmarkChecks.lineCount(sources);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		checker.destroy();
+	}
+
+	@Benchmark
+	public int checkFile(Lines counter) throws CheckstyleException {
+		counter.lines += lineCount;
+		return checker.processSources(sources);
+	}
+}
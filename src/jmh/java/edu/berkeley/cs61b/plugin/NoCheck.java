@@ -0,0 +1,38 @@
+package edu.berkeley.cs61b.plugin;
+
+import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
+import com.puppycrawl.tools.checkstyle.utils.CommonUtil;
+
+/**
+ * A check that visits no tokens. A TreeWalker with no checks skips parsing, so a
+ * TreeWalker running only this one measures what parsing and walking a file cost
+ * before any check does its own work. Set commentNodesRequired to match the check
+ * being compared, since comment nodes mean a second walk.
+ */
+public class NoCheck extends AbstractCheck {
+	private boolean commentNodesRequired;
+
+	public void setCommentNodesRequired(boolean commentNodesRequired) {
+		this.commentNodesRequired = commentNodesRequired;
+	}
+
+	@Override
+	public boolean isCommentNodesRequired() {
+		return commentNodesRequired;
+	}
+
+	@Override
+	public int[] getDefaultTokens() {
+		return CommonUtil.EMPTY_INT_ARRAY;
+	}
+
+	@Override
+	public int[] getAcceptableTokens() {
+		return CommonUtil.EMPTY_INT_ARRAY;
+	}
+
+	@Override
+	public int[] getRequiredTokens() {
+		return CommonUtil.EMPTY_INT_ARRAY;
+	}
+}
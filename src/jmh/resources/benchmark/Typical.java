@@ -0,0 +1,196 @@
+package deque;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/** A double-ended queue backed by a circular array.
+ *  @author CS 61B Student
+ */
+public class ArrayDeque<T> implements Deque<T>, Iterable<T> {
+
+    /** Initial capacity of the backing array. */
+    private static final int INITIAL_CAPACITY = 8;
+    /** Smallest fraction of the array that may be in use before shrinking. */
+    private static final double MIN_USAGE = 0.25;
+
+    /** The items of this deque, starting at FIRST and wrapping around. */
+    private T[] items;
+    /** Index of the first item. */
+    private int first;
+    /** Number of items in this deque. */
+    private int size;
+
+    /** An empty deque. */
+    @SuppressWarnings("unchecked")
+    public ArrayDeque() {
+        items = (T[]) new Object[INITIAL_CAPACITY];
+        first = 0;
+        size = 0;
+    }
+
+    /** Adds ITEM to the front of this deque. */
+    @Override
+    public void addFirst(T item) {
+        if (size == items.length) {
+            resize(items.length * 2);
+        }
+        first = wrap(first - 1);
+        items[first] = item;
+        size += 1;
+    }
+
+    /** Adds ITEM to the back of this deque. */
+    @Override
+    public void addLast(T item) {
+        if (size == items.length) {
+            resize(items.length * 2);
+        }
+        items[wrap(first + size)] = item;
+        size += 1;
+    }
+
+    /** Returns the number of items in this deque. */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** Prints the items of this deque from first to last, separated by
+     *  spaces, followed by a newline. */
+    @Override
+    public void printDeque() {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < size; i += 1) {
+            if (i > 0) {
+                out.append(' ');
+            }
+            out.append(get(i));
+        }
+        System.out.println(out);
+    }
+
+    /** Removes and returns the first item of this deque, or null if it
+     *  is empty. */
+    @Override
+    public T removeFirst() {
+        if (size == 0) {
+            return null;
+        }
+        T item = items[first];
+        items[first] = null;
+        first = wrap(first + 1);
+        size -= 1;
+        shrinkIfSparse();
+        return item;
+    }
+
+    /** Removes and returns the last item of this deque, or null if it
+     *  is empty. */
+    @Override
+    public T removeLast() {
+        if (size == 0) {
+            return null;
+        }
+        int last = wrap(first + size - 1);
+        T item = items[last];
+        items[last] = null;
+        size -= 1;
+        shrinkIfSparse();
+        return item;
+    }
+
+    /** Returns the item at INDEX, where 0 is the front, or null if there
+     *  is no such item. */
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        return items[wrap(first + index)];
+    }
+
+    /** Returns an iterator over the items of this deque, front to back. */
+    @Override
+    public Iterator<T> iterator() {
+        return new DequeIterator();
+    }
+
+    /** Returns true iff O is a Deque with the same items in the same
+     *  order as this one. */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Deque)) {
+            return false;
+        }
+        Deque<?> other = (Deque<?>) o;
+        if (other.size() != size) {
+            return false;
+        }
+        for (int i = 0; i < size; i += 1) {
+            Object mine = get(i);
+            Object theirs = other.get(i);
+            if (mine == null ? theirs != null : !mine.equals(theirs)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (T item : this) {
+            result = 31 * result + (item == null ? 0 : item.hashCode());
+        }
+        return result;
+    }
+
+    /** Returns INDEX reduced modulo the length of the backing array. */
+    private int wrap(int index) {
+        return Math.floorMod(index, items.length);
+    }
+
+    /** Halves the backing array if less than MIN_USAGE of it is in use. */
+    private void shrinkIfSparse() {
+        if (items.length > INITIAL_CAPACITY
+            && size < items.length * MIN_USAGE) {
+            resize(items.length / 2);
+        }
+    }
+
+    /** Moves the items into a new backing array of length CAPACITY,
+     *  starting at index 0. */
+    @SuppressWarnings("unchecked")
+    private void resize(int capacity) {
+        T[] newItems = (T[]) new Object[capacity];
+        for (int i = 0; i < size; i += 1) {
+            newItems[i] = get(i);
+        }
+        items = newItems;
+        first = 0;
+    }
+
+    /** Iterates over the items of the enclosing deque, front to back. */
+    private class DequeIterator implements Iterator<T> {
+        /** Index (relative to the front) of the next item to return. */
+        private int next;
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T item = get(next);
+            next += 1;
+            return item;
+        }
+    }
+}
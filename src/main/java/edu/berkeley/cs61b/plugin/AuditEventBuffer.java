@@ -0,0 +1,91 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+
+/**
+ * Records the per-file events of a checker run so they can be replayed later,
+ * in order, to another listener. Audit start/finish events are not recorded.
+ */
+class AuditEventBuffer implements AuditListener {
+	private enum Kind {
+		FILE_STARTED, FILE_FINISHED, ERROR, EXCEPTION
+	}
+
+	private final List<Kind> kinds = new ArrayList<>();
+	private final List<AuditEvent> events = new ArrayList<>();
+	private final List<Throwable> throwables = new ArrayList<>();
+
+	@Override
+	public void auditStarted(AuditEvent e) {
+	}
+
+	@Override
+	public void auditFinished(AuditEvent e) {
+	}
+
+	@Override
+	public void fileStarted(AuditEvent e) {
+		record(Kind.FILE_STARTED, e, null);
+	}
+
+	@Override
+	public void fileFinished(AuditEvent e) {
+		record(Kind.FILE_FINISHED, e, null);
+	}
+
+	@Override
+	public void addError(AuditEvent e) {
+		record(Kind.ERROR, e, null);
+	}
+
+	@Override
+	public void addException(AuditEvent e, Throwable throwable) {
+		record(Kind.EXCEPTION, e, throwable);
+	}
+
+	/**
+	 * Returns the recorded errors, in order.
+	 */
+	List<AuditEvent> getErrors() {
+		List<AuditEvent> errors = new ArrayList<>();
+		for (int i = 0; i < events.size(); i++) {
+			if (kinds.get(i) == Kind.ERROR) {
+				errors.add(events.get(i));
+			}
+		}
+		return errors;
+	}
+
+	/**
+	 * Sends every recorded event to listener, in the order they were recorded.
+	 */
+	void replayTo(AuditListener listener) {
+		for (int i = 0; i < events.size(); i++) {
+			AuditEvent e = events.get(i);
+			switch (kinds.get(i)) {
+				case FILE_STARTED:
+					listener.fileStarted(e);
+					break;
+				case FILE_FINISHED:
+					listener.fileFinished(e);
+					break;
+				case ERROR:
+					listener.addError(e);
+					break;
+				case EXCEPTION:
+					listener.addException(e, throwables.get(i));
+					break;
+			}
+		}
+	}
+
+	private void record(Kind kind, AuditEvent e, Throwable throwable) {
+		kinds.add(kind);
+		events.add(e);
+		throwables.add(throwable);
+	}
+}
@@ -0,0 +1,173 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.intellij.execution.ui.ConsoleView;
+import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileTypes.FileTypeManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VirtualFile;
+
+/**
+ * Collects the selected files and runs the style checker over them in the background.
+ *
+ * Nothing here touches the UI directly except the console, whose print methods may be
+ * called from any thread: ConsoleView buffers the text and flushes it on the EDT.
+ * Output goes through a {@link ConsoleBuffer} so large runs reach the console in a few
+ * big chunks rather than one print per violation.
+ */
+class CheckStyleTask extends Task.Backgroundable {
+	private static final Logger LOG = Logger.getInstance(CheckStyleTask.class);
+
+	private final VirtualFile[] inputFiles;
+	private final ConsoleBuffer console;
+	private final StyleOutputFilter filter;
+	private final StyleResultsPanel results;
+	/** Time spent in each check, if timing is turned on. */
+	private CheckTimings timings;
+
+	CheckStyleTask(@NotNull Project project, VirtualFile[] inputFiles, ConsoleView consoleView, StyleOutputFilter filter,
+			StyleResultsPanel results) {
+		super(project, "Checking style", true);
+		this.inputFiles = inputFiles;
+		this.console = new ConsoleBuffer(consoleView);
+		this.filter = filter;
+		this.results = results;
+	}
+
+	@Override
+	public void run(@NotNull ProgressIndicator indicator) {
+		indicator.setText("Running style checker");
+		try {
+			runCheckStyle(getProject(), indicator);
+		} finally {
+			console.flush();
+		}
+	}
+
+	@Override
+	public void onSuccess() {
+		if (timings != null && timings.getFiles() > 0) {
+			CheckTimingsPanel.show(getProject(), timings);
+		}
+	}
+
+	/**
+	 * Walks the selected files and directories, passing each .java file to consumer as
+	 * it is found. Files and directories the project excludes or ignores (output
+	 * directories, .git, ...) are not entered from their parent directory, each file is
+	 * passed at most once even if selections overlap, and directories are only entered
+	 * once, so symlink cycles end. Children are listed in short read actions; consumer
+	 * runs outside of them.
+	 */
+	private void collectFiles(ProgressIndicator indicator, VirtualFile[] roots, Consumer<VirtualFile> consumer) {
+		ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(getProject());
+		FileTypeManager fileTypeManager = FileTypeManager.getInstance();
+		Set<VirtualFile> visited = new HashSet<>();
+		ArrayDeque<VirtualFile> sources = new ArrayDeque<>();
+		Collections.addAll(sources, roots);
+
+		while (!sources.isEmpty()) {
+			if (indicator.isCanceled()) {
+				return;
+			}
+			VirtualFile f = sources.removeFirst();
+			if (!f.isValid()) {
+				continue;
+			}
+			if (f.isDirectory()) {
+				VirtualFile canonical = f.getCanonicalFile();
+				if (!visited.add(canonical != null ? canonical : f)) {
+					continue;
+				}
+				ReadAction.run(() -> {
+					for (VirtualFile child : f.getChildren()) {
+						if (!fileIndex.isExcluded(child) && !fileTypeManager.isFileIgnored(child)) {
+							sources.addLast(child);
+						}
+					}
+				});
+			} else if (f.getName().endsWith(".java") && visited.add(f)) {
+				consumer.accept(f);
+			}
+		}
+	}
+
+	private void runCheckStyle(Project project, ProgressIndicator indicator) {
+
+		StyleConfig config;
+		String configName = PluginUtils.getSemesterID();
+		try {
+			config = StyleConfigCache.get(configName);
+		} catch (Exception e) {
+			console.print("Error loading style checker config: " + e.getMessage() + "\n", ConsoleViewContentType.ERROR_OUTPUT);
+			e.printStackTrace();
+			return;
+		}
+
+		console.print("Running style checker (config: " + configName + ")...\n", ConsoleViewContentType.SYSTEM_OUTPUT);
+		CheckerPool pool = CheckerPool.getInstance(project);
+		StyleResultCache cache = StyleResultCache.getInstance(project);
+		LoggingAuditListener listener = new LoggingAuditListener(project, console, filter, results);
+		try {
+			long start = System.nanoTime();
+			int[] numFiles = {0};
+			int[] numErrs = {0};
+
+			timings = PluginUtils.isTimingChecks() ? new CheckTimings() : null;
+			StyleCheckProgress progress = new StyleCheckProgress(indicator);
+			StyleResultCache.Session session = cache.startSession(config);
+			// a single file picked by hand is a quick check, let it ahead of bulk runs
+			StyleCheckScheduler.Priority priority = inputFiles.length == 1 && !inputFiles[0].isDirectory()
+					? StyleCheckScheduler.Priority.INTERACTIVE : StyleCheckScheduler.Priority.BULK;
+			int workers = PluginUtils.isParallel() ? Runtime.getRuntime().availableProcessors() : 1;
+
+			// queue files for the checker, which starts on them while the selection is still
+			// being walked; unchanged files keep their place with their cached results, so
+			// everything is reported in the order the files were found
+			try (ParallelChecker.Run run = new ParallelChecker(pool, config, workers)
+					.start(session.recorder(listener), progress, timings, priority)) {
+				collectFiles(indicator, inputFiles, f -> {
+					numFiles[0]++;
+					StyleResultCache.Result cached = session.lookup(f);
+					if (cached != null) {
+						run.addChecked(cached.getEvents(), cached.getNumErrs());
+					} else {
+						progress.fileQueued();
+						run.add(session.source(f));
+					}
+				});
+				numErrs[0] += run.finish();
+			}
+			LOG.info(String.format("Checked %d file(s) in %d ms", numFiles[0], (System.nanoTime() - start) / 1_000_000));
+
+			if (indicator.isCanceled()) {
+				console.print("Style checker cancelled.\n", ConsoleViewContentType.SYSTEM_OUTPUT);
+				return;
+			}
+			console.print(String.format("Checked %d file(s).\n", numFiles[0]), ConsoleViewContentType.SYSTEM_OUTPUT);
+			if (numErrs[0] > 0) {
+				console.print("Style checker completed with " + numErrs[0] + " errors." + "\n", ConsoleViewContentType.ERROR_OUTPUT);
+			} else {
+				console.print("Style checker completed with no errors.", ConsoleViewContentType.SYSTEM_OUTPUT);
+			}
+		} catch (ProcessCanceledException e) {
+			console.print("Style checker cancelled.\n", ConsoleViewContentType.SYSTEM_OUTPUT);
+		} catch (Throwable e) {
+			console.print("Error running style checker: " + e.getMessage() + "\n", ConsoleViewContentType.ERROR_OUTPUT);
+			e.printStackTrace();
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package edu.berkeley.cs61b.plugin;
 
+import com.intellij.execution.filters.TextConsoleBuilder;
 import com.intellij.execution.filters.TextConsoleBuilderFactory;
 import com.intellij.execution.ui.ConsoleView;
 import com.intellij.openapi.actionSystem.ActionManager;
@@ -11,13 +12,42 @@ import com.intellij.openapi.util.Key;
 import com.intellij.openapi.wm.ToolWindow;
 import com.intellij.openapi.wm.ToolWindowFactory;
 import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
 import org.jetbrains.annotations.NotNull;
 
 public class CheckStyleToolWindowFactory implements ToolWindowFactory {
 	static final Key<ConsoleView> KEY_CONSOLE = Key.create("style output console");
+	static final Key<StyleOutputFilter> KEY_FILTER = Key.create("style output filter");
+	static final Key<StyleResultsPanel> KEY_RESULTS = Key.create("style results");
+	/** Display names of the tabs. The console tab also holds the other tabs' user data. */
+	static final String CONSOLE_TAB = "Console";
+	static final String RESULTS_TAB = "Violations";
 
 	@Override
 	public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+		SimpleToolWindowPanel panel = createPanel();
+
+		TextConsoleBuilder consoleBuilder = TextConsoleBuilderFactory.getInstance().createBuilder(project);
+		StyleOutputFilter filter = new StyleOutputFilter(project);
+		consoleBuilder.addFilter(filter);
+		ConsoleView consoleView = consoleBuilder.getConsole();
+		panel.setContent(consoleView.getComponent());
+
+		StyleResultsPanel results = new StyleResultsPanel(project, toolWindow.getDisposable());
+		SimpleToolWindowPanel resultsPanel = createPanel();
+		resultsPanel.setContent(results);
+
+		ContentFactory contentFactory = toolWindow.getContentManager().getFactory();
+		Content content = contentFactory.createContent(panel, CONSOLE_TAB, true);
+		content.putUserData(KEY_CONSOLE, consoleView);
+		content.putUserData(KEY_FILTER, filter);
+		content.putUserData(KEY_RESULTS, results);
+		toolWindow.getContentManager().addContent(content);
+		toolWindow.getContentManager().addContent(contentFactory.createContent(resultsPanel, RESULTS_TAB, false));
+		StyleRecheckQueue.getInstance(project).contentCreated();
+	}
+
+	private static SimpleToolWindowPanel createPanel() {
 		SimpleToolWindowPanel panel = new SimpleToolWindowPanel(false, true);
 
 		final ActionManager actionManager = ActionManager.getInstance();
@@ -27,12 +57,6 @@ public class CheckStyleToolWindowFactory implements ToolWindowFactory {
 				false
 		);
 		panel.setToolbar(actionToolbar.getComponent());
-
-		ConsoleView consoleView = TextConsoleBuilderFactory.getInstance().createBuilder(project).getConsole();
-		panel.setContent(consoleView.getComponent());
-
-		Content content = toolWindow.getContentManager().getFactory().createContent(panel, "", true);
-		content.putUserData(KEY_CONSOLE, consoleView);
-		toolWindow.getContentManager().addContent(content);
+		return panel;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,75 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Time spent in each TreeWalker check over a run, plus the time spent parsing and
+ * walking the files themselves. Filled in by {@link TreeWalkerProfiler}s; safe to
+ * share between the checkers of a parallel run.
+ */
+class CheckTimings {
+	/** Name of the row holding the time TreeWalker spent outside of checks. */
+	static final String PARSE_ROW = "(parsing and tree walking)";
+
+	private final Map<String, Row> rows = new LinkedHashMap<>();
+	private int files;
+
+	/** The time spent in one check, in nanoseconds. */
+	static class Row {
+		final String module;
+		long beginNanos;
+		long tokenNanos;
+		long finishNanos;
+		long tokenCalls;
+
+		Row(String module) {
+			this.module = module;
+		}
+
+		long getTotalNanos() {
+			return beginNanos + tokenNanos + finishNanos;
+		}
+	}
+
+	synchronized void add(String module, long beginNanos, long tokenNanos, long finishNanos, long tokenCalls) {
+		Row row = rows.computeIfAbsent(module, Row::new);
+		row.beginNanos += beginNanos;
+		row.tokenNanos += tokenNanos;
+		row.finishNanos += finishNanos;
+		row.tokenCalls += tokenCalls;
+	}
+
+	synchronized void addFiles(int files, long parseNanos) {
+		this.files += files;
+		rows.computeIfAbsent(PARSE_ROW, Row::new).tokenNanos += parseNanos;
+	}
+
+	synchronized List<Row> getRows() {
+		return new ArrayList<>(rows.values());
+	}
+
+	synchronized int getFiles() {
+		return files;
+	}
+
+	/**
+	 * Writes the timings as CSV, in milliseconds.
+	 */
+	synchronized void writeCsv(Writer out) throws IOException {
+		out.write("module,beginTree ms,visitToken/leaveToken ms,finishTree ms,total ms,token calls\n");
+		for (Row row : rows.values()) {
+			out.write(String.format(Locale.ROOT, "\"%s\",%.3f,%.3f,%.3f,%.3f,%d\n", row.module, millis(row.beginNanos),
+					millis(row.tokenNanos), millis(row.finishNanos), millis(row.getTotalNanos()), row.tokenCalls));
+		}
+	}
+
+	static double millis(long nanos) {
+		return nanos / 1_000_000.0;
+	}
+}
@@ -0,0 +1,165 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.table.AbstractTableModel;
+
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowManager;
+import com.intellij.ui.ScrollPaneFactory;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.table.JBTable;
+
+/**
+ * Sortable table of the time spent in each check during the last timed run, with a
+ * button to export it as CSV. Shown in a "Timings" tab of the Style Checker window,
+ * which is added the first time a timed run finishes.
+ */
+class CheckTimingsPanel extends JPanel {
+	static final String TIMINGS_TAB = "Timings";
+
+	private static final String[] COLUMNS = {
+			"Module", "beginTree (ms)", "visit/leaveToken (ms)", "finishTree (ms)", "Total (ms)", "% of total", "Token calls"
+	};
+
+	private final Project project;
+	private final TimingsTableModel model = new TimingsTableModel();
+	private final JLabel summary = new JLabel();
+	private CheckTimings timings;
+
+	CheckTimingsPanel(Project project) {
+		super(new BorderLayout());
+		this.project = project;
+
+		JBTable table = new JBTable(model);
+		table.setAutoCreateRowSorter(true);
+		table.getRowSorter().setSortKeys(Collections.singletonList(new RowSorter.SortKey(4, SortOrder.DESCENDING)));
+
+		JButton export = new JButton("Export...");
+		export.addActionListener(e -> export());
+		JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		top.add(summary);
+		top.add(export);
+
+		add(top, BorderLayout.NORTH);
+		add(ScrollPaneFactory.createScrollPane(table), BorderLayout.CENTER);
+	}
+
+	/**
+	 * Shows timings in project's Style Checker window, adding the Timings tab if needed.
+	 * Must be called on the EDT.
+	 */
+	static void show(Project project, CheckTimings timings) {
+		ToolWindow toolWindow = ToolWindowManager.getInstance(project).getToolWindow("Style Checker");
+		if (toolWindow == null) {
+			return;
+		}
+		Content content = toolWindow.getContentManager().findContent(TIMINGS_TAB);
+		if (content == null) {
+			content = toolWindow.getContentManager().getFactory().createContent(new CheckTimingsPanel(project), TIMINGS_TAB, false);
+			toolWindow.getContentManager().addContent(content);
+		}
+		((CheckTimingsPanel) content.getComponent()).setTimings(timings);
+	}
+
+	private void setTimings(CheckTimings timings) {
+		this.timings = timings;
+		model.setRows(timings.getRows());
+		summary.setText(String.format("%d file(s), %.1f ms in checks and parsing", timings.getFiles(),
+				CheckTimings.millis(model.total)));
+	}
+
+	private void export() {
+		if (timings == null) {
+			return;
+		}
+		FileSaverDescriptor descriptor = new FileSaverDescriptor("Export Check Timings", "Save check timings as CSV", "csv");
+		VirtualFileWrapper target = FileChooserFactory.getInstance().createSaveFileDialog(descriptor, project)
+				.save("check-timings.csv");
+		if (target == null) {
+			return;
+		}
+		try (Writer out = Files.newBufferedWriter(target.getFile().toPath(), StandardCharsets.UTF_8)) {
+			timings.writeCsv(out);
+		} catch (IOException e) {
+			Messages.showErrorDialog(project, "Could not export check timings: " + e.getMessage(), "Export Check Timings");
+		}
+	}
+
+	private static class TimingsTableModel extends AbstractTableModel {
+		private List<CheckTimings.Row> rows = new ArrayList<>();
+		private long total;
+
+		void setRows(List<CheckTimings.Row> rows) {
+			this.rows = rows;
+			total = 0;
+			for (CheckTimings.Row row : rows) {
+				total += row.getTotalNanos();
+			}
+			fireTableDataChanged();
+		}
+
+		@Override
+		public int getRowCount() {
+			return rows.size();
+		}
+
+		@Override
+		public int getColumnCount() {
+			return COLUMNS.length;
+		}
+
+		@Override
+		public String getColumnName(int column) {
+			return COLUMNS[column];
+		}
+
+		@Override
+		public Class<?> getColumnClass(int column) {
+			return column == 0 ? String.class : column == 6 ? Long.class : Double.class;
+		}
+
+		@Override
+		public Object getValueAt(int rowIndex, int column) {
+			CheckTimings.Row row = rows.get(rowIndex);
+			switch (column) {
+				case 0:
+					return row.module;
+				case 1:
+					return round(CheckTimings.millis(row.beginNanos));
+				case 2:
+					return round(CheckTimings.millis(row.tokenNanos));
+				case 3:
+					return round(CheckTimings.millis(row.finishNanos));
+				case 4:
+					return round(CheckTimings.millis(row.getTotalNanos()));
+				case 5:
+					return total == 0 ? 0.0 : round(100.0 * row.getTotalNanos() / total);
+				default:
+					return row.tokenCalls;
+			}
+		}
+
+		private static double round(double value) {
+			return Math.round(value * 10) / 10.0;
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.project.Project;
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+
+/**
+ * Per-project pool of configured Checkers.
+ *
+ * Configuring a Checker instantiates every module in the config, so checkers are
+ * kept around between runs instead of being rebuilt on every click. Callers either
+ * use {@link #process}, or add their listener after {@link #acquire} and remove it
+ * again before {@link #release}.
+ * Checkstyle resets its per-run state (error counter, file contexts) at the start
+ * and end of every run, so a released checker is ready
+ * for the next run as is.
+ */
+@Service(Service.Level.PROJECT)
+public final class CheckerPool implements Disposable {
+	private static final int MAX_IDLE = Runtime.getRuntime().availableProcessors();
+	/** Files checked per scheduler slot in bulk runs. */
+	private static final int BULK_BATCH_SIZE = 16;
+
+	private final Project project;
+	private final Deque<StyleChecker> idle = new ArrayDeque<>();
+	private StyleConfig pooledConfig;
+	private boolean disposed;
+
+	public CheckerPool(Project project) {
+		this.project = project;
+	}
+
+	static CheckerPool getInstance(@NotNull Project project) {
+		return project.getService(CheckerPool.class);
+	}
+
+	/**
+	 * Runs sources through a pooled checker, reporting to listener.
+	 *
+	 * @return the number of errors found
+	 */
+	int process(StyleConfig config, List<? extends StyleChecker.Source> sources, AuditListener listener,
+			StyleCheckScheduler.Priority priority) throws CheckstyleException {
+		return process(config, sources, listener, null, null, priority);
+	}
+
+	/**
+	 * Runs sources through a pooled checker, reporting to listener and, if given, to
+	 * progress, and adding the time spent in each check to timings if given. Each batch
+	 * of files waits for a slot from the {@link StyleCheckScheduler} first; an
+	 * interactive check is a single batch.
+	 *
+	 * @return the number of errors found
+	 */
+	int process(StyleConfig config, List<? extends StyleChecker.Source> sources, AuditListener listener,
+			@Nullable StyleCheckProgress progress, @Nullable CheckTimings timings, StyleCheckScheduler.Priority priority)
+			throws CheckstyleException {
+		StyleCheckScheduler scheduler = StyleCheckScheduler.getInstance();
+		int batchSize = priority == StyleCheckScheduler.Priority.INTERACTIVE ? Math.max(1, sources.size()) : BULK_BATCH_SIZE;
+		StyleChecker checker = acquire(config);
+		checker.addListener(listener);
+		if (progress != null) {
+			checker.addListener(progress);
+			checker.addBeforeExecutionFileFilter(progress);
+		}
+		int numErrs = 0;
+		try {
+			for (int i = 0; i < sources.size(); i += batchSize) {
+				List<? extends StyleChecker.Source> batch = sources.subList(i, Math.min(sources.size(), i + batchSize));
+				try (StyleCheckScheduler.Slot ignored = scheduler.acquire(project, priority, progress)) {
+					numErrs += checker.processSources(batch, timings);
+				}
+			}
+		} catch (ProcessCanceledException e) {
+			// cancelled while waiting for a slot, between files: the checker is fine
+			removeListeners(checker, listener, progress);
+			release(config, checker);
+			throw e;
+		} catch (CheckstyleException | RuntimeException e) {
+			discard(checker);
+			throw e;
+		}
+		removeListeners(checker, listener, progress);
+		release(config, checker);
+		return numErrs;
+	}
+
+	private static void removeListeners(StyleChecker checker, AuditListener listener, @Nullable StyleCheckProgress progress) {
+		checker.removeListener(listener);
+		if (progress != null) {
+			checker.removeListener(progress);
+			checker.removeBeforeExecutionFileFilter(progress);
+		}
+	}
+
+	/**
+	 * Returns an idle checker configured with config, creating one if none is available.
+	 * Checkers configured with any other config are dropped.
+	 */
+	StyleChecker acquire(StyleConfig config) throws CheckstyleException {
+		synchronized (idle) {
+			if (config != pooledConfig) {
+				clear();
+				pooledConfig = config;
+			}
+			StyleChecker checker = idle.poll();
+			if (checker != null) {
+				return checker;
+			}
+		}
+		return config.createChecker();
+	}
+
+	/**
+	 * Returns a checker obtained from {@link #acquire} to the pool.
+	 */
+	void release(StyleConfig config, StyleChecker checker) {
+		synchronized (idle) {
+			if (!disposed && config == pooledConfig && idle.size() < MAX_IDLE) {
+				idle.push(checker);
+				return;
+			}
+		}
+		checker.destroy();
+	}
+
+	/**
+	 * Destroys a checker obtained from {@link #acquire} that failed mid-run instead of pooling it.
+	 */
+	void discard(Checker checker) {
+		checker.destroy();
+	}
+
+	@Override
+	public void dispose() {
+		synchronized (idle) {
+			disposed = true;
+			clear();
+		}
+	}
+
+	private void clear() {
+		Checker checker;
+		while ((checker = idle.poll()) != null) {
+			checker.destroy();
+		}
+	}
+}
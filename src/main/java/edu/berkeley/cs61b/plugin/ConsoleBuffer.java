@@ -0,0 +1,57 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.intellij.execution.ui.ConsoleView;
+import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+/**
+ * Coalesces console output into large chunks.
+ *
+ * Consecutive text of the same content type is collected and handed to the console
+ * in a single print call once FLUSH_SIZE characters have built up, or FLUSH_DELAY_MS
+ * after the first pending text, whichever comes first. Safe to use from any thread.
+ */
+class ConsoleBuffer {
+	private static final int FLUSH_SIZE = 64 * 1024;
+	private static final long FLUSH_DELAY_MS = 100;
+
+	private final ConsoleView console;
+	private final StringBuilder text = new StringBuilder();
+	private ConsoleViewContentType type;
+	private ScheduledFuture<?> scheduledFlush;
+
+	ConsoleBuffer(ConsoleView console) {
+		this.console = console;
+	}
+
+	synchronized void print(String s, ConsoleViewContentType contentType) {
+		if (type != contentType) {
+			flush();
+			type = contentType;
+		}
+		text.append(s);
+		if (text.length() >= FLUSH_SIZE) {
+			flush();
+		} else if (scheduledFlush == null) {
+			scheduledFlush = AppExecutorUtil.getAppScheduledExecutorService()
+					.schedule(this::flush, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Hands all pending text to the console now.
+	 */
+	synchronized void flush() {
+		if (scheduledFlush != null) {
+			scheduledFlush.cancel(false);
+			scheduledFlush = null;
+		}
+		if (text.length() > 0) {
+			console.print(text.toString(), type);
+			text.setLength(0);
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileEditor.impl.LoadTextUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+
+/**
+ * A file's text as the IDE currently sees it.
+ *
+ * Files with a loaded Document are checked with the Document's text, including
+ * unsaved edits, without touching the disk. Other files are decoded from the VFS
+ * content cache with the charset the IDE detected for them.
+ */
+class DocumentSource implements StyleChecker.Source {
+	private final VirtualFile file;
+
+	DocumentSource(VirtualFile file) {
+		this.file = file;
+	}
+
+	VirtualFile getVirtualFile() {
+		return file;
+	}
+
+	@Override
+	public File getFile() {
+		return new File(file.getPath());
+	}
+
+	@Override
+	public FileText load() throws IOException {
+		return new FileText(getFile(), StyleChecker.splitLines(getText(file)));
+	}
+
+	/**
+	 * Returns the modification stamp of file's current text: its Document's if one is
+	 * loaded (which follows unsaved edits), otherwise the file's own.
+	 */
+	static long getStamp(VirtualFile file) {
+		Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+		return document != null ? document.getModificationStamp() : file.getModificationStamp();
+	}
+
+	/**
+	 * Returns whether file has a Document with edits that are not saved yet.
+	 */
+	static boolean hasUnsavedChanges(VirtualFile file) {
+		FileDocumentManager manager = FileDocumentManager.getInstance();
+		Document document = manager.getCachedDocument(file);
+		return document != null && manager.isDocumentUnsaved(document);
+	}
+
+	/**
+	 * Returns text, the text of a file as {@link #load} reads it, as bytes to hash.
+	 */
+	static byte[] getContents(CharSequence text) {
+		return text.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Returns file's current text, including unsaved edits, as the checker sees it.
+	 */
+	static CharSequence getText(VirtualFile file) {
+		Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+		if (document != null) {
+			return ReadAction.compute(() -> document.getImmutableCharSequence());
+		}
+		return LoadTextUtil.loadText(file);
+	}
+}
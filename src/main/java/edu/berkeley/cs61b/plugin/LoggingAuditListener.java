@@ -0,0 +1,141 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+
+/**
+ * Prints each violation as a "path:line[:column]: message" line. The lines are plain
+ * text batched through a {@link ConsoleBuffer}; {@link StyleOutputFilter} turns the
+ * locations into hyperlinks.
+ *
+ * The file and its display path are resolved once per file, when it starts, and
+ * reused for all of its violations. Each file's violations are also kept in a
+ * {@link ViolationStore} and added to the results view once the file finishes.
+ */
+class LoggingAuditListener implements AuditListener {
+	private static final Logger LOG = Logger.getInstance(LoggingAuditListener.class);
+
+	private ConsoleBuffer console;
+	private StyleOutputFilter filter;
+	private StyleResultsPanel results;
+	private Project project;
+
+	/** The file name of the events currently being printed, its file and display path. */
+	private String fileName;
+	private VirtualFile file;
+	private String displayPath;
+	/** Where this run's violations are kept, the row of the current file's first one, and the check of each. */
+	private final ViolationStore store = new ViolationStore();
+	private int firstRow;
+	private List<String> checks = new ArrayList<>();
+
+	LoggingAuditListener(Project project, ConsoleBuffer console, StyleOutputFilter filter, StyleResultsPanel results) {
+		this.project = project;
+		this.console = console;
+		this.filter = filter;
+		this.results = results;
+	}
+
+	@Override
+	public void auditStarted(AuditEvent e) {
+	}
+
+	@Override
+	public void auditFinished(AuditEvent e) {
+		console.flush();
+	}
+
+	@Override
+	public void fileStarted(AuditEvent e) {
+		resolve(e.getFileName());
+	}
+
+	@Override
+	public void fileFinished(AuditEvent e) {
+		addResults();
+	}
+
+	@Override
+	public void addError(AuditEvent e) {
+		if (!e.getFileName().equals(fileName)) {
+			addResults();
+			resolve(e.getFileName());
+		}
+		String check = StyleViolation.checkName(e);
+		if (addToStore(e, check) >= 0) {
+			checks.add(check);
+		}
+
+		StringBuilder line = new StringBuilder(displayPath.length() + e.getMessage().length() + 16);
+		line.append(displayPath).append(':').append(e.getLine());
+		if (e.getColumn() != 0) {
+			line.append(':').append(e.getColumn());
+		}
+		line.append(": ").append(e.getMessage()).append('\n');
+		console.print(line.toString(), ConsoleViewContentType.NORMAL_OUTPUT);
+	}
+
+	@Override
+	public void addException(AuditEvent e, Throwable throwable) {
+	}
+
+	/**
+	 * Adds the violation of e to the store. If the store cannot write its rows out, the
+	 * rest of the run's violations are kept in memory rather than the run stopping.
+	 *
+	 * @return its row, or -1 if the store was closed
+	 */
+	private int addToStore(AuditEvent e, String check) {
+		try {
+			return store.add(displayPath, e.getLine(), e.getColumn(), e.getViolation().getColumnCharIndex(),
+					e.getSeverityLevel(), check, e.getViolation().getKey(), e.getMessage());
+		} catch (IOException ex) {
+			if (store.isInMemoryOnly()) {
+				throw new UncheckedIOException(ex);
+			}
+			LOG.warn("could not write style violations to a temporary file, keeping them in memory", ex);
+			store.keepInMemory();
+			return addToStore(e, check);
+		}
+	}
+
+	private void addResults() {
+		if (!checks.isEmpty()) {
+			results.addFile(StyleResultsModel.FileNode.of(file, displayPath, store, firstRow, checks));
+			firstRow += checks.size();
+			checks = new ArrayList<>();
+		}
+	}
+
+	private void resolve(String name) {
+		fileName = name;
+		VirtualFile f = LocalFileSystem.getInstance().findFileByPath(name);
+		file = f;
+		if (f != null) {
+			Path file_path = Paths.get(f.getPath());
+			Path base_path = Paths.get(project.getBasePath());
+
+			try {
+				displayPath = base_path.relativize(file_path).toString();
+			} catch (IllegalArgumentException e1) {
+				// 'cannot be made relative'
+				displayPath = file_path.toString();
+			}
+			filter.register(displayPath, f);
+		} else {
+			displayPath = name;
+		}
+	}
+}
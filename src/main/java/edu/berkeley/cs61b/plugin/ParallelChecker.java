@@ -0,0 +1,288 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+
+/**
+ * Checks sources on one or more pooled Checkers while they are still being found.
+ *
+ * Sources are {@link Run#add added} to a queue as they turn up, and each worker takes
+ * the next few queued sources whenever it is free, so checking starts with the first
+ * file rather than after the whole selection is walked. Results that are known already
+ * are {@link Run#addChecked added} in their place among the sources. Every batch's
+ * events are buffered and replayed to the listener on the thread that adds the sources,
+ * in the order the sources were added, so the listener sees the same sequence of per-file
+ * events, and the same error count, as a single sequential run, and is never called
+ * from two threads at once. Batches are work for the {@link StyleCheckScheduler}, so
+ * the number actually running is also capped application-wide.
+ */
+class ParallelChecker {
+	/** Most sources a worker takes at once; one scheduler slot's worth. */
+	private static final int BATCH_SIZE = 16;
+
+	private final CheckerPool pool;
+	private final StyleConfig config;
+	private final int workers;
+
+	ParallelChecker(CheckerPool pool, StyleConfig config) {
+		this(pool, config, Runtime.getRuntime().availableProcessors());
+	}
+
+	ParallelChecker(CheckerPool pool, StyleConfig config, int workers) {
+		this.pool = pool;
+		this.config = config;
+		this.workers = Math.max(1, workers);
+	}
+
+	/**
+	 * Starts the workers of a run that reports to listener. Progress, if given, is told
+	 * about each file as soon as it is checked, and timings, if given, gets the time spent
+	 * in each check on every worker. The run must be {@link Run#finish finished}, or
+	 * {@link Run#close closed} if the caller gives up.
+	 */
+	Run start(AuditListener listener, @Nullable StyleCheckProgress progress, @Nullable CheckTimings timings,
+			StyleCheckScheduler.Priority priority) {
+		return new Run(listener, progress, timings, priority);
+	}
+
+	/** One run: the queue of sources, its workers, and the results waiting to be replayed. */
+	class Run implements AutoCloseable {
+		private final AuditListener listener;
+		private final StyleCheckProgress progress;
+		private final CheckTimings timings;
+		private final StyleCheckScheduler.Priority priority;
+		private final ExecutorService executor;
+
+		/** Guards everything below; workers wait on it for sources, the adding thread for results. */
+		private final Object lock = new Object();
+		private final ArrayDeque<Queued> queue = new ArrayDeque<>();
+		/** Sequence number of the next source added. */
+		private int added;
+		private boolean closed;
+		/** Checked batches by the sequence number of their first source. */
+		private final Map<Integer, Batch> done = new HashMap<>();
+		private int replayed;
+		private int numErrs;
+		private Throwable failure;
+
+		private Run(AuditListener listener, @Nullable StyleCheckProgress progress, @Nullable CheckTimings timings,
+				StyleCheckScheduler.Priority priority) {
+			this.listener = listener;
+			this.progress = progress;
+			this.timings = timings;
+			this.priority = priority;
+			executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("CS 61B Style Checker", workers);
+			listener.auditStarted(new AuditEvent(ParallelChecker.this));
+			for (int i = 0; i < workers; i++) {
+				executor.execute(this::work);
+			}
+		}
+
+		/**
+		 * Queues source to be checked, then replays whatever batches are ready. Call from
+		 * the thread that started the run. A worker's failure is only reported by
+		 * {@link #finish}.
+		 */
+		void add(StyleChecker.Source source) {
+			synchronized (lock) {
+				queue.addLast(new Queued(added, source));
+				added++;
+				lock.notifyAll();
+			}
+			replayReady();
+		}
+
+		/**
+		 * Adds the events and error count of a source that needs no checking, to be
+		 * replayed in its place after the sources added before it. Call from the thread
+		 * that started the run.
+		 */
+		void addChecked(AuditEventBuffer events, int numErrs) {
+			Batch batch = new Batch(1, events);
+			batch.numErrs = numErrs;
+			synchronized (lock) {
+				done.put(added, batch);
+				added++;
+			}
+			replayReady();
+		}
+
+		private void replayReady() {
+			Batch batch;
+			while ((batch = nextBatch()) != null) {
+				replay(batch);
+			}
+		}
+
+		/**
+		 * Waits for every queued source to be checked and replays the rest of the results.
+		 *
+		 * @return the number of errors found
+		 */
+		int finish() throws CheckstyleException {
+			synchronized (lock) {
+				closed = true;
+				lock.notifyAll();
+			}
+			try {
+				Batch batch;
+				while ((batch = awaitBatch()) != null) {
+					replay(batch);
+				}
+			} finally {
+				executor.shutdownNow();
+			}
+			listener.auditFinished(new AuditEvent(ParallelChecker.this));
+			return numErrs;
+		}
+
+		/** Stops the run without replaying what is left; for when the caller fails. */
+		@Override
+		public void close() {
+			synchronized (lock) {
+				closed = true;
+				queue.clear();
+				lock.notifyAll();
+			}
+			executor.shutdownNow();
+		}
+
+		/**
+		 * Returns the next batch to replay if it is checked already, otherwise null.
+		 */
+		@Nullable
+		private Batch nextBatch() {
+			synchronized (lock) {
+				Batch batch = done.remove(replayed);
+				if (batch != null) {
+					replayed += batch.size;
+				}
+				return batch;
+			}
+		}
+
+		/**
+		 * Waits for the next batch to replay, or returns null once every source added has
+		 * been replayed.
+		 */
+		@Nullable
+		private Batch awaitBatch() throws CheckstyleException {
+			synchronized (lock) {
+				while (true) {
+					rethrowFailure();
+					Batch batch = done.remove(replayed);
+					if (batch != null) {
+						replayed += batch.size;
+						return batch;
+					}
+					if (replayed == added) {
+						return null;
+					}
+					try {
+						lock.wait();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new CheckstyleException("interrupted while checking files", e);
+					}
+				}
+			}
+		}
+
+		private void replay(Batch batch) {
+			batch.events.replayTo(listener);
+			numErrs += batch.numErrs;
+		}
+
+		private void rethrowFailure() throws CheckstyleException {
+			if (failure instanceof ProcessCanceledException) {
+				throw (ProcessCanceledException) failure;
+			}
+			if (failure instanceof CheckstyleException) {
+				throw (CheckstyleException) failure;
+			}
+			if (failure != null) {
+				throw new CheckstyleException(failure.getMessage(), failure);
+			}
+		}
+
+		/**
+		 * A worker: checks batches from the queue until the run is closed and the queue
+		 * empty. A batch is consecutive sources, so it stops short of a checked one.
+		 */
+		private void work() {
+			while (true) {
+				int first;
+				List<StyleChecker.Source> sources = new ArrayList<>(BATCH_SIZE);
+				synchronized (lock) {
+					while (queue.isEmpty() && !closed && failure == null) {
+						try {
+							lock.wait();
+						} catch (InterruptedException e) {
+							return;
+						}
+					}
+					if (queue.isEmpty() || failure != null) {
+						return;
+					}
+					first = queue.peekFirst().seq;
+					while (!queue.isEmpty() && sources.size() < BATCH_SIZE
+							&& queue.peekFirst().seq == first + sources.size()) {
+						sources.add(queue.removeFirst().source);
+					}
+				}
+
+				Batch batch = new Batch(sources.size(), new AuditEventBuffer());
+				try {
+					batch.numErrs = pool.process(config, sources, batch.events, progress, timings, priority);
+				} catch (Throwable e) {
+					synchronized (lock) {
+						if (failure == null) {
+							failure = e;
+						}
+						lock.notifyAll();
+					}
+					return;
+				}
+				synchronized (lock) {
+					done.put(first, batch);
+					lock.notifyAll();
+				}
+			}
+		}
+	}
+
+	/** A source waiting to be checked, with its sequence number in the run. */
+	private static class Queued {
+		final int seq;
+		final StyleChecker.Source source;
+
+		Queued(int seq, StyleChecker.Source source) {
+			this.seq = seq;
+			this.source = source;
+		}
+	}
+
+	/** The buffered events of a batch of consecutive sources. */
+	private static class Batch {
+		final int size;
+		final AuditEventBuffer events;
+		int numErrs;
+
+		Batch(int size, AuditEventBuffer events) {
+			this.size = size;
+			this.events = events;
+		}
+	}
+}
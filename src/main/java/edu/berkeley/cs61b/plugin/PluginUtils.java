@@ -1,17 +1,41 @@
 package edu.berkeley.cs61b.plugin;
 
+import com.intellij.ide.plugins.IdeaPluginDescriptor;
+import com.intellij.ide.plugins.PluginManagerCore;
 import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.openapi.extensions.PluginId;
 
 import java.time.LocalDate;
 
 public class PluginUtils {
+	static final String PLUGIN_ID = "edu.berkeley.cs61b.plugin";
 	static final String PROPERTY_KEY_BASE = "cs61b_plugin.";
 	static final String KEY_SEMESTER = PROPERTY_KEY_BASE + "semester";
+	static final String KEY_PARALLEL = PROPERTY_KEY_BASE + "parallel";
+	static final String KEY_CHECK_ON_SAVE = PROPERTY_KEY_BASE + "check_on_save";
+	static final String KEY_TIME_CHECKS = PROPERTY_KEY_BASE + "time_checks";
 
 	static String getSemesterID() {
 		return PropertiesComponent.getInstance().getValue(KEY_SEMESTER, computeCurrentSemester());
 	}
 
+	static boolean isParallel() {
+		return PropertiesComponent.getInstance().getBoolean(KEY_PARALLEL, false);
+	}
+
+	static boolean isCheckOnSave() {
+		return PropertiesComponent.getInstance().getBoolean(KEY_CHECK_ON_SAVE, false);
+	}
+
+	static boolean isTimingChecks() {
+		return PropertiesComponent.getInstance().getBoolean(KEY_TIME_CHECKS, false);
+	}
+
+	static String getPluginVersion() {
+		IdeaPluginDescriptor plugin = PluginManagerCore.getPlugin(PluginId.getId(PLUGIN_ID));
+		return plugin == null ? "" : plugin.getVersion();
+	}
+
 	static String computeCurrentSemester() {
 		/*
 		 Dec 15 to May 1: Spring
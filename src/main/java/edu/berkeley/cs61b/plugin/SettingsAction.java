@@ -15,10 +15,21 @@ public class SettingsAction extends AnAction {
 
 		SettingsForm form = new SettingsForm(e.getProject());
 		form.getSemesterField().setText(PluginUtils.getSemesterID());
+		form.getParallelCheckBox().setSelected(PluginUtils.isParallel());
+		form.getCheckOnSaveCheckBox().setSelected(PluginUtils.isCheckOnSave());
+		form.getTimeChecksCheckBox().setSelected(PluginUtils.isTimingChecks());
 
 		form.show();
 		if (form.getExitCode() == DialogWrapper.OK_EXIT_CODE) {
-			props.setValue(PluginUtils.KEY_SEMESTER, form.getSemesterField().getText());
+			String semester = form.getSemesterField().getText();
+			boolean changed = !semester.equals(PluginUtils.getSemesterID());
+			props.setValue(PluginUtils.KEY_SEMESTER, semester);
+			if (changed) {
+				StyleConfigCache.invalidate();
+			}
+			props.setValue(PluginUtils.KEY_PARALLEL, form.getParallelCheckBox().isSelected());
+			props.setValue(PluginUtils.KEY_CHECK_ON_SAVE, form.getCheckOnSaveCheckBox().isSelected());
+			props.setValue(PluginUtils.KEY_TIME_CHECKS, form.getTimeChecksCheckBox().isSelected());
 		}
 	}
 
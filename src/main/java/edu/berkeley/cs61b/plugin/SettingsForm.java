@@ -5,12 +5,16 @@ import com.intellij.openapi.ui.DialogWrapper;
 import com.intellij.openapi.ui.ValidationInfo;
 import org.jetbrains.annotations.Nullable;
 
+import javax.swing.JCheckBox;
 import javax.swing.JComponent;
 import javax.swing.JPanel;
 import javax.swing.JTextField;
 
 public class SettingsForm extends DialogWrapper {
 	private JTextField semesterField;
+	private JCheckBox parallelCheckBox;
+	private JCheckBox checkOnSaveCheckBox;
+	private JCheckBox timeChecksCheckBox;
 	private JPanel content;
 
 	SettingsForm(Project project) {
@@ -39,4 +43,16 @@ public class SettingsForm extends DialogWrapper {
 	JTextField getSemesterField() {
 		return semesterField;
 	}
+
+	JCheckBox getParallelCheckBox() {
+		return parallelCheckBox;
+	}
+
+	JCheckBox getCheckOnSaveCheckBox() {
+		return checkOnSaveCheckBox;
+	}
+
+	JCheckBox getTimeChecksCheckBox() {
+		return timeChecksCheckBox;
+	}
 }
@@ -0,0 +1,140 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.lang.annotation.AnnotationHolder;
+import com.intellij.lang.annotation.ExternalAnnotator;
+import com.intellij.lang.annotation.HighlightSeverity;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+
+/**
+ * Highlights style violations in Java editors as the file is edited.
+ *
+ * The daemon already debounces external annotators: {@link #collectInformation} takes
+ * a snapshot of the document once typing pauses, {@link #doAnnotate} checks it on a
+ * background thread with a pooled checker for the current semester, and the pass is
+ * cancelled and restarted when a newer edit arrives. Files with syntax errors are
+ * skipped, since the checker can't parse them, and so are files outside the project's
+ * content, such as library sources.
+ */
+public class StyleAnnotator extends ExternalAnnotator<StyleAnnotator.Input, List<AuditEvent>> {
+	private static final Logger LOG = Logger.getInstance(StyleAnnotator.class);
+
+	@Nullable
+	@Override
+	public Input collectInformation(@NotNull PsiFile file, @NotNull Editor editor, boolean hasErrors) {
+		VirtualFile virtualFile = file.getVirtualFile();
+		if (hasErrors || virtualFile == null || !virtualFile.getName().endsWith(".java")
+				|| !ProjectFileIndex.getInstance(file.getProject()).isInContent(virtualFile)) {
+			return null;
+		}
+		Document document = editor.getDocument();
+		return new Input(file.getProject(), new File(virtualFile.getPath()), document.getImmutableCharSequence());
+	}
+
+	@Nullable
+	@Override
+	public List<AuditEvent> doAnnotate(Input input) {
+		try {
+			StyleConfig config = StyleConfigCache.get(PluginUtils.getSemesterID());
+			ProgressManager.checkCanceled();
+			AuditEventBuffer events = new AuditEventBuffer();
+			CheckerPool.getInstance(input.project).process(config, Collections.singletonList(input), events,
+					StyleCheckScheduler.Priority.INTERACTIVE);
+			return events.getErrors();
+		} catch (ProcessCanceledException e) {
+			throw e;
+		} catch (Exception e) {
+			LOG.debug("could not check style of " + input.file, e);
+			return null;
+		}
+	}
+
+	@Override
+	public void apply(@NotNull PsiFile file, List<AuditEvent> events, @NotNull AnnotationHolder holder) {
+		Document document = PsiDocumentManager.getInstance(file.getProject()).getDocument(file);
+		if (events == null || document == null) {
+			return;
+		}
+		for (AuditEvent e : events) {
+			TextRange range = getRange(document, e);
+			if (range == null) {
+				continue;
+			}
+			HighlightSeverity severity = e.getSeverityLevel() == SeverityLevel.ERROR
+					? HighlightSeverity.WARNING : HighlightSeverity.WEAK_WARNING;
+			holder.newAnnotation(severity, e.getMessage()).range(range).create();
+		}
+	}
+
+	/**
+	 * Returns the range to highlight for e: from its column, or the first non-blank
+	 * character if it has none, to the end of the line. The column is taken as a
+	 * character index, since the one Checkstyle reports has tabs expanded.
+	 */
+	@Nullable
+	private static TextRange getRange(Document document, AuditEvent e) {
+		int line = e.getLine() - 1;
+		if (line < 0 || line >= document.getLineCount()) {
+			return null;
+		}
+		CharSequence text = document.getImmutableCharSequence();
+		int start = document.getLineStartOffset(line);
+		int end = document.getLineEndOffset(line);
+		if (e.getColumn() > 0) {
+			start = Math.min(start + e.getViolation().getColumnCharIndex(), end);
+		} else {
+			while (start < end && Character.isWhitespace(text.charAt(start))) {
+				start++;
+			}
+		}
+		while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+			end--;
+		}
+		if (start == end) {
+			end = Math.min(start + 1, text.length());
+		}
+		return start < end ? new TextRange(start, end) : null;
+	}
+
+	/** A snapshot of an editor's text, to be checked in the background. */
+	static class Input implements StyleChecker.Source {
+		private final Project project;
+		private final File file;
+		private final CharSequence text;
+
+		Input(Project project, File file, CharSequence text) {
+			this.project = project;
+			this.file = file;
+			this.text = text;
+		}
+
+		@Override
+		public File getFile() {
+			return file;
+		}
+
+		@Override
+		public FileText load() {
+			return new FileText(file, StyleChecker.splitLines(text));
+		}
+	}
+}
@@ -0,0 +1,266 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+
+/**
+ * Headless batch style checker, for running a semester's config over many submissions.
+ *
+ * Uses the same config index, compiled configs and custom checks as the plugin, but
+ * nothing from the IDE. Submissions are checked in parallel, one per worker at a
+ * time, each worker reusing its own configured checker, which is destroyed once the
+ * run is over. One JSON result per submission is written to the output directory,
+ * and a "name errors" summary line per submission to standard output. A file that
+ * can't be checked, e.g. because it doesn't parse, is reported in its submission's
+ * result as an exception violation, and the rest of the submission is still checked.
+ *
+ * Usage: StyleBatch [-j workers] [-o output-dir] semester (submission-root | @list-file)...
+ * where a list file names one submission root per line.
+ */
+public class StyleBatch {
+	private static final String USAGE = "usage: StyleBatch [-j workers] [-o output-dir] semester (submission-root | @list-file)...";
+	/** How long to wait for the workers to stop before giving up on destroying their checkers. */
+	private static final long TERMINATION_WAIT_SECONDS = 30;
+
+	private final StyleConfig config;
+	private final String semester;
+	private final Path outputDir;
+	private final ThreadLocal<StyleChecker> checkers = new ThreadLocal<>();
+	/** Every checker in checkers, to be destroyed once the workers have stopped. */
+	private final List<StyleChecker> created = new CopyOnWriteArrayList<>();
+
+	StyleBatch(StyleConfig config, String semester, Path outputDir) {
+		this.config = config;
+		this.semester = semester;
+		this.outputDir = outputDir;
+	}
+
+	public static void main(String[] args) throws Exception {
+		int workers = Runtime.getRuntime().availableProcessors();
+		Path outputDir = Paths.get("style-results");
+		String semester = null;
+		List<Path> roots = new ArrayList<>();
+
+		for (int i = 0; i < args.length; i++) {
+			if ((args[i].equals("-j") || args[i].equals("-o")) && i + 1 == args.length) {
+				System.err.println(args[i] + " needs a value");
+				System.err.println(USAGE);
+				System.exit(2);
+			}
+			if (args[i].equals("-j")) {
+				try {
+					workers = Math.max(1, Integer.parseInt(args[++i]));
+				} catch (NumberFormatException e) {
+					System.err.println("-j takes a number of workers, not \"" + args[i] + "\"");
+					System.err.println(USAGE);
+					System.exit(2);
+				}
+			} else if (args[i].equals("-o")) {
+				outputDir = Paths.get(args[++i]);
+			} else if (semester == null) {
+				semester = args[i];
+			} else if (args[i].startsWith("@")) {
+				for (String line : Files.readAllLines(Paths.get(args[i].substring(1)), StandardCharsets.UTF_8)) {
+					if (!line.trim().isEmpty()) {
+						roots.add(Paths.get(line.trim()));
+					}
+				}
+			} else {
+				roots.add(Paths.get(args[i]));
+			}
+		}
+		if (semester == null || roots.isEmpty()) {
+			System.err.println(USAGE);
+			System.exit(2);
+		}
+
+		StyleConfig config;
+		try {
+			config = StyleConfigCache.get(semester);
+		} catch (IOException | CheckstyleException | RuntimeException e) {
+			System.err.println("Error loading style checker config: " + e.getMessage());
+			System.exit(2);
+			return;
+		}
+		Files.createDirectories(outputDir);
+		int failures = new StyleBatch(config, semester, outputDir).run(roots, workers);
+		System.exit(failures == 0 ? 0 : 1);
+	}
+
+	/**
+	 * Checks every submission root on workers threads.
+	 *
+	 * @return the number of submissions that could not be checked
+	 */
+	int run(List<Path> roots, int workers) throws InterruptedException {
+		List<String> names = resultNames(roots);
+		ExecutorService executor = Executors.newFixedThreadPool(workers);
+		try {
+			List<Future<Integer>> results = new ArrayList<>(roots.size());
+			for (int i = 0; i < roots.size(); i++) {
+				Path root = roots.get(i);
+				String name = names.get(i);
+				results.add(executor.submit(() -> checkSubmission(root, name)));
+			}
+
+			int failures = 0;
+			for (int i = 0; i < results.size(); i++) {
+				try {
+					System.out.println(names.get(i) + "\t" + results.get(i).get());
+				} catch (ExecutionException e) {
+					failures++;
+					System.out.println(names.get(i) + "\tfailed: " + e.getCause().getMessage());
+				}
+			}
+			return failures;
+		} finally {
+			executor.shutdownNow();
+			// a worker still running after this would be using its checker
+			if (executor.awaitTermination(TERMINATION_WAIT_SECONDS, TimeUnit.SECONDS)) {
+				for (StyleChecker checker : created) {
+					checker.destroy();
+				}
+				created.clear();
+			}
+		}
+	}
+
+	/**
+	 * Checks every .java file under root and writes the result to outputDir/name.json.
+	 *
+	 * @return the number of errors found
+	 */
+	private int checkSubmission(Path root, String name) throws IOException, CheckstyleException {
+		List<FileSource> sources;
+		try (Stream<Path> files = Files.walk(root)) {
+			sources = files.filter(p -> p.toString().endsWith(".java") && Files.isRegularFile(p))
+					.sorted()
+					.map(p -> new FileSource(p.toFile()))
+					.collect(Collectors.toList());
+		}
+
+		try (ViolationStore errors = new ViolationStore()) {
+			ErrorRecorder recorder = new ErrorRecorder(errors);
+			StyleChecker checker = checkers.get();
+			if (checker == null) {
+				checker = config.createChecker();
+				checkers.set(checker);
+				created.add(checker);
+			}
+			checker.addListener(recorder);
+			int numErrs;
+			try {
+				numErrs = checker.processSources(sources);
+			} catch (CheckstyleException | RuntimeException e) {
+				checkers.remove();
+				created.remove(checker);
+				checker.destroy();
+				throw e;
+			} finally {
+				checker.removeListener(recorder);
+			}
+
+			try (Writer out = Files.newBufferedWriter(outputDir.resolve(name + ".json"), StandardCharsets.UTF_8)) {
+				new StyleResultWriter(out, root).write(semester, sources.size(), numErrs, errors);
+			}
+			return numErrs;
+		}
+	}
+
+	/** Picks a distinct result file name for each root, based on its directory name. */
+	private static List<String> resultNames(List<Path> roots) {
+		Set<String> used = new HashSet<>();
+		List<String> names = new ArrayList<>(roots.size());
+		for (Path root : roots) {
+			Path fileName = root.toAbsolutePath().normalize().getFileName();
+			String base = fileName == null ? "submission" : fileName.toString();
+			String name = base;
+			for (int n = 2; !used.add(name); n++) {
+				name = base + "-" + n;
+			}
+			names.add(name);
+		}
+		return names;
+	}
+
+	/** Keeps every violation reported, under its file name and check class name. */
+	private static class ErrorRecorder implements AuditListener {
+		private final ViolationStore errors;
+
+		ErrorRecorder(ViolationStore errors) {
+			this.errors = errors;
+		}
+
+		@Override
+		public void auditStarted(AuditEvent e) {
+		}
+
+		@Override
+		public void auditFinished(AuditEvent e) {
+		}
+
+		@Override
+		public void fileStarted(AuditEvent e) {
+		}
+
+		@Override
+		public void fileFinished(AuditEvent e) {
+		}
+
+		@Override
+		public void addError(AuditEvent e) {
+			try {
+				errors.add(e.getFileName(), e.getLine(), e.getColumn(), e.getViolation().getColumnCharIndex(),
+						e.getSeverityLevel(), e.getSourceName(), e.getViolation().getKey(), e.getMessage());
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}
+
+		@Override
+		public void addException(AuditEvent e, Throwable throwable) {
+		}
+	}
+
+	/** A file on disk, read as UTF-8 when the checker gets to it. */
+	private static class FileSource implements StyleChecker.Source {
+		private final File file;
+
+		FileSource(File file) {
+			this.file = file;
+		}
+
+		@Override
+		public File getFile() {
+			return file;
+		}
+
+		@Override
+		public FileText load() throws IOException {
+			return new FileText(file, StandardCharsets.UTF_8.name());
+		}
+	}
+}
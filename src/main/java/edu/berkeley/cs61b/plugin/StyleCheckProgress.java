@@ -0,0 +1,72 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.BeforeExecutionFileFilter;
+
+/**
+ * Reports per-file progress of a checker run to a ProgressIndicator, and stops the
+ * run between files once the indicator is cancelled. Files are counted in with
+ * {@link #fileQueued} as they are found, so the total can grow while the run goes on.
+ *
+ * Register it on every Checker taking part in the run, both as a listener and as a
+ * before-execution file filter; it is safe to share between worker threads.
+ */
+class StyleCheckProgress implements AuditListener, BeforeExecutionFileFilter {
+	private final ProgressIndicator indicator;
+	private final AtomicInteger total = new AtomicInteger();
+	private final AtomicInteger done = new AtomicInteger();
+
+	StyleCheckProgress(ProgressIndicator indicator) {
+		this.indicator = indicator;
+		indicator.setIndeterminate(false);
+		indicator.setFraction(0);
+	}
+
+	/**
+	 * Counts in one more file to be checked.
+	 */
+	void fileQueued() {
+		total.incrementAndGet();
+	}
+
+	boolean isCanceled() {
+		return indicator.isCanceled();
+	}
+
+	@Override
+	public boolean accept(String uri) {
+		return !indicator.isCanceled();
+	}
+
+	@Override
+	public void auditStarted(AuditEvent e) {
+	}
+
+	@Override
+	public void auditFinished(AuditEvent e) {
+	}
+
+	@Override
+	public void fileStarted(AuditEvent e) {
+	}
+
+	@Override
+	public void fileFinished(AuditEvent e) {
+		int n = done.incrementAndGet();
+		int outOf = Math.max(n, total.get());
+		indicator.setFraction((double) n / outOf);
+		indicator.setText2(n + " / " + outOf + " files");
+	}
+
+	@Override
+	public void addError(AuditEvent e) {
+	}
+
+	@Override
+	public void addException(AuditEvent e, Throwable throwable) {
+	}
+}
@@ -0,0 +1,172 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+
+/**
+ * Application-wide limit on how many style checks run at once, across all open projects.
+ *
+ * Every batch of files a checker processes first takes a slot here. When all slots are
+ * busy, waiting interactive checks (the file being edited, a single file checked by
+ * hand) are let in before any bulk run, and among checks of the same kind the projects
+ * take turns, so one project's big run can't lock out the others. Bulk runs take a
+ * slot per batch rather than for the whole run, so a quick check never waits for more
+ * than one batch.
+ */
+@Service(Service.Level.APP)
+public final class StyleCheckScheduler {
+	/** Leaves a core for indexing and the UI. */
+	private static final int MAX_RUNNING = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+	/** How often a waiting check looks for cancellation. */
+	private static final long CANCEL_POLL_MS = 100;
+
+	enum Priority {
+		INTERACTIVE, BULK
+	}
+
+	private final int maxRunning;
+	/** Waiting requests by priority, then by project; projects are served in iteration order. */
+	private final Map<Project, ArrayDeque<Ticket>> interactive = new LinkedHashMap<>();
+	private final Map<Project, ArrayDeque<Ticket>> bulk = new LinkedHashMap<>();
+	private int running;
+
+	public StyleCheckScheduler() {
+		this(MAX_RUNNING);
+	}
+
+	StyleCheckScheduler(int maxRunning) {
+		this.maxRunning = Math.max(1, maxRunning);
+	}
+
+	static StyleCheckScheduler getInstance() {
+		return ApplicationManager.getApplication().getService(StyleCheckScheduler.class);
+	}
+
+	/**
+	 * Waits for a slot to check files of project in. Gives up if the current progress
+	 * indicator, or progress if given, is cancelled first.
+	 *
+	 * @return the slot, to be closed once the batch is done
+	 */
+	Slot acquire(@NotNull Project project, Priority priority, @Nullable StyleCheckProgress progress)
+			throws CheckstyleException {
+		Ticket ticket = new Ticket();
+		synchronized (this) {
+			queue(priority).computeIfAbsent(project, p -> new ArrayDeque<>()).addLast(ticket);
+			grant();
+			try {
+				while (!ticket.granted) {
+					ProgressManager.checkCanceled();
+					if (progress != null && progress.isCanceled()) {
+						throw new ProcessCanceledException();
+					}
+					wait(CANCEL_POLL_MS);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				withdraw(ticket, project, priority);
+				throw new CheckstyleException("interrupted while waiting to check files", e);
+			} catch (RuntimeException e) {
+				withdraw(ticket, project, priority);
+				throw e;
+			}
+		}
+		return new Slot();
+	}
+
+	/** Takes back a ticket that is no longer waited for, or its slot if it was granted meanwhile. */
+	private void withdraw(Ticket ticket, Project project, Priority priority) {
+		if (ticket.granted) {
+			release();
+			return;
+		}
+		Map<Project, ArrayDeque<Ticket>> queue = queue(priority);
+		ArrayDeque<Ticket> tickets = queue.get(project);
+		if (tickets != null) {
+			tickets.remove(ticket);
+			if (tickets.isEmpty()) {
+				queue.remove(project);
+			}
+		}
+	}
+
+	private synchronized void release() {
+		running--;
+		grant();
+	}
+
+	/** Hands free slots to waiting tickets, interactive ones first. */
+	private void grant() {
+		boolean granted = false;
+		while (running < maxRunning) {
+			Ticket next = next(interactive);
+			if (next == null) {
+				next = next(bulk);
+			}
+			if (next == null) {
+				break;
+			}
+			next.granted = true;
+			running++;
+			granted = true;
+		}
+		if (granted) {
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Takes the oldest ticket of the first project in queue, and moves that project to
+	 * the back so the others get the next turns.
+	 */
+	@Nullable
+	private static Ticket next(Map<Project, ArrayDeque<Ticket>> queue) {
+		Iterator<Map.Entry<Project, ArrayDeque<Ticket>>> it = queue.entrySet().iterator();
+		if (!it.hasNext()) {
+			return null;
+		}
+		Map.Entry<Project, ArrayDeque<Ticket>> first = it.next();
+		it.remove();
+		Ticket ticket = first.getValue().poll();
+		if (!first.getValue().isEmpty()) {
+			queue.put(first.getKey(), first.getValue());
+		}
+		return ticket;
+	}
+
+	private Map<Project, ArrayDeque<Ticket>> queue(Priority priority) {
+		return priority == Priority.INTERACTIVE ? interactive : bulk;
+	}
+
+	private static class Ticket {
+		boolean granted;
+	}
+
+	/** A slot taken with {@link #acquire}. */
+	final class Slot implements AutoCloseable {
+		private boolean closed;
+
+		private Slot() {
+		}
+
+		@Override
+		public void close() {
+			if (!closed) {
+				closed = true;
+				release();
+			}
+		}
+	}
+}
@@ -0,0 +1,261 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.jetbrains.annotations.Nullable;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.Definitions;
+import com.puppycrawl.tools.checkstyle.TreeWalker;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.BeforeExecutionFileFilter;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.FileSetCheck;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+import com.puppycrawl.tools.checkstyle.utils.CommonUtil;
+
+/**
+ * A Checker that can also check text it is handed, rather than reading files from disk.
+ *
+ * {@link #processSources} runs the same steps as {@link Checker#process}: file filters,
+ * every FileSetCheck, then the violation filters and listeners via the public
+ * fire methods. Only where the text comes from differs, and audit start and finish,
+ * which Checker only fires privately, are left to the caller, who knows when its
+ * run as a whole starts and ends.
+ */
+class StyleChecker extends Checker {
+	/** Key of checkstyle's own "Got an exception" message. */
+	private static final String EXCEPTION_MSG = "general.exception";
+
+	private final List<FileSetCheck> fileSetChecks = new ArrayList<>();
+	private final List<BeforeExecutionFileFilter> fileFilters = new ArrayList<>();
+	private String basedir;
+	private String charset = System.getProperty("file.encoding", StandardCharsets.UTF_8.name());
+	/** Profilers of the TreeWalkers among fileSetChecks, by index, once timing was first asked for. */
+	private TreeWalkerProfiler[] profilers;
+
+	/** A file to check, whose text is only loaded when the checker gets to it. */
+	interface Source {
+		File getFile();
+
+		FileText load() throws IOException;
+	}
+
+	@Override
+	public void addFileSetCheck(FileSetCheck fileSetCheck) {
+		super.addFileSetCheck(fileSetCheck);
+		fileSetChecks.add(fileSetCheck);
+	}
+
+	@Override
+	public void addBeforeExecutionFileFilter(BeforeExecutionFileFilter filter) {
+		super.addBeforeExecutionFileFilter(filter);
+		fileFilters.add(filter);
+	}
+
+	@Override
+	public void removeBeforeExecutionFileFilter(BeforeExecutionFileFilter filter) {
+		super.removeBeforeExecutionFileFilter(filter);
+		fileFilters.remove(filter);
+	}
+
+	@Override
+	public void setBasedir(String basedir) {
+		super.setBasedir(basedir);
+		this.basedir = basedir;
+	}
+
+	@Override
+	public void setCharset(String charset) throws UnsupportedEncodingException {
+		super.setCharset(charset);
+		this.charset = charset;
+	}
+
+	/**
+	 * Checks sources in order, loading each one's text as it gets to it.
+	 *
+	 * @return the number of errors found
+	 */
+	int processSources(List<? extends Source> sources) throws CheckstyleException {
+		return processSources(sources, null);
+	}
+
+	/**
+	 * Checks sources in order, adding the time spent in each TreeWalker check to
+	 * timings if given.
+	 *
+	 * @return the number of errors found
+	 */
+	int processSources(List<? extends Source> sources, @Nullable CheckTimings timings) throws CheckstyleException {
+		if (timings != null && profilers == null) {
+			profilers = new TreeWalkerProfiler[fileSetChecks.size()];
+			for (int i = 0; i < fileSetChecks.size(); i++) {
+				if (fileSetChecks.get(i) instanceof TreeWalker) {
+					profilers[i] = TreeWalkerProfiler.install((TreeWalker) fileSetChecks.get(i));
+				}
+			}
+		}
+		ErrorCounter counter = new ErrorCounter();
+		addListener(counter);
+		try {
+			for (FileSetCheck fsc : fileSetChecks) {
+				fsc.beginProcessing(charset);
+			}
+			for (Source source : sources) {
+				processSource(source, timings != null ? profilers : null);
+			}
+			if (timings != null) {
+				for (TreeWalkerProfiler profiler : profilers) {
+					if (profiler != null) {
+						profiler.drainTo(timings);
+					}
+				}
+			}
+			fileSetChecks.forEach(FileSetCheck::finishProcessing);
+			fileSetChecks.forEach(FileSetCheck::destroy);
+			return counter.count;
+		} finally {
+			removeListener(counter);
+		}
+	}
+
+	/**
+	 * Checks one source. A file that can't be read or checked, e.g. because it doesn't
+	 * parse, gets an exception violation instead, as with Checker's haltOnException
+	 * off, so the files after it are still checked.
+	 */
+	private void processSource(Source source, @Nullable TreeWalkerProfiler[] profilers) {
+		File file = source.getFile();
+		String fileName = file.getAbsolutePath();
+		if (!accept(fileName)) {
+			return;
+		}
+		fireFileStarted(fileName);
+		SortedSet<Violation> violations = new TreeSet<>();
+		FileText text = null;
+		try {
+			text = source.load();
+		} catch (IOException e) {
+			violations.add(exceptionViolation(e));
+		}
+		try {
+			for (int i = 0; text != null && i < fileSetChecks.size(); i++) {
+				TreeWalkerProfiler profiler = profilers != null ? profilers[i] : null;
+				if (profiler == null) {
+					violations.addAll(fileSetChecks.get(i).process(file, text));
+					continue;
+				}
+				long start = System.nanoTime();
+				profiler.startFile();
+				try {
+					violations.addAll(fileSetChecks.get(i).process(file, text));
+				} finally {
+					profiler.finishFile(System.nanoTime() - start);
+				}
+			}
+		} catch (Exception e) {
+			violations.add(exceptionViolation(e));
+		}
+		fireErrors(fileName, violations);
+		fireFileFinished(fileName);
+	}
+
+	/**
+	 * Returns checkstyle's "Got an exception" violation for e, with the messages of e
+	 * and its causes, which for a parse error include where it failed.
+	 */
+	private Violation exceptionViolation(Exception e) {
+		StringBuilder message = new StringBuilder();
+		for (Throwable t = e; t != null; t = t.getCause()) {
+			if (t.getMessage() != null && message.indexOf(t.getMessage()) < 0) {
+				if (message.length() > 0) {
+					message.append(": ");
+				}
+				message.append(t.getMessage());
+			}
+		}
+		if (message.length() == 0) {
+			message.append(e.getClass().getName());
+		}
+		return new Violation(1, Definitions.CHECKSTYLE_BUNDLE, EXCEPTION_MSG,
+				new String[]{message.toString()}, null, getClass(), null);
+	}
+
+	private boolean accept(String fileName) {
+		String stripped = CommonUtil.relativizeAndNormalizePath(basedir, fileName);
+		for (BeforeExecutionFileFilter filter : fileFilters) {
+			if (!filter.accept(stripped)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Splits text into lines the way FileText does when it reads a file: on "\n",
+	 * "\r\n" or "\r", without an empty line after a final terminator.
+	 */
+	static List<String> splitLines(CharSequence text) {
+		List<String> lines = new ArrayList<>();
+		int start = 0;
+		int length = text.length();
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+			if (c == '\n' || c == '\r') {
+				lines.add(text.subSequence(start, i).toString());
+				if (c == '\r' && i + 1 < length && text.charAt(i + 1) == '\n') {
+					i++;
+				}
+				start = i + 1;
+			}
+		}
+		if (start < length) {
+			lines.add(text.subSequence(start, length).toString());
+		}
+		return lines;
+	}
+
+	/** Counts errors the way Checker's own counter does. */
+	private static class ErrorCounter implements AuditListener {
+		private int count;
+
+		@Override
+		public void auditStarted(AuditEvent e) {
+			count = 0;
+		}
+
+		@Override
+		public void auditFinished(AuditEvent e) {
+		}
+
+		@Override
+		public void fileStarted(AuditEvent e) {
+		}
+
+		@Override
+		public void fileFinished(AuditEvent e) {
+		}
+
+		@Override
+		public void addError(AuditEvent e) {
+			if (e.getSeverityLevel() == SeverityLevel.ERROR) {
+				count++;
+			}
+		}
+
+		@Override
+		public void addException(AuditEvent e, Throwable throwable) {
+			count++;
+		}
+	}
+}
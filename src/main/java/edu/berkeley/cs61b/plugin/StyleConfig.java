@@ -0,0 +1,52 @@
+package edu.berkeley.cs61b.plugin;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+
+/**
+ * A compiled checkstyle configuration, together with the checks and suppressions
+ * resources it was loaded from.
+ */
+class StyleConfig {
+	private final String checks;
+	private final String suppressions;
+	private final Configuration configuration;
+	private final byte[] digest;
+
+	StyleConfig(String checks, String suppressions, Configuration configuration, byte[] digest) {
+		this.checks = checks;
+		this.suppressions = suppressions;
+		this.configuration = configuration;
+		this.digest = digest;
+	}
+
+	String getChecks() {
+		return checks;
+	}
+
+	String getSuppressions() {
+		return suppressions;
+	}
+
+	Configuration getConfiguration() {
+		return configuration;
+	}
+
+	/**
+	 * Returns a SHA-256 digest of the checks and suppressions XML this config was loaded from.
+	 */
+	byte[] getDigest() {
+		return digest.clone();
+	}
+
+	/**
+	 * Creates a new Checker configured with this configuration.
+	 */
+	StyleChecker createChecker() throws CheckstyleException {
+		StyleChecker checker = new StyleChecker();
+		checker.setModuleClassLoader(Checker.class.getClassLoader());
+		checker.configure(configuration);
+		return checker;
+	}
+}
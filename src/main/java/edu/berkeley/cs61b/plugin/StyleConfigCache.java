@@ -0,0 +1,219 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.xml.sax.InputSource;
+
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
+import com.puppycrawl.tools.checkstyle.PropertyResolver;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+
+/**
+ * Plugin-wide cache of compiled style checker configurations.
+ *
+ * Configurations are keyed by the checks/suppressions resource pair picked from
+ * CONFIG_ROOT/index.txt, so semesters that map to the same XML files share a
+ * single compiled Configuration. Call {@link #invalidate()} whenever the semester
+ * setting changes.
+ */
+class StyleConfigCache {
+	private static final String CONFIG_ROOT = "style_config/";
+
+	private static final Map<String, StyleConfig> CONFIGS = new ConcurrentHashMap<>();
+	private static final Map<String, Object> LOAD_LOCKS = new ConcurrentHashMap<>();
+	/** Index entry picked for each semester asked for so far. */
+	private static final Map<String, IndexEntry> RESOLVED = new ConcurrentHashMap<>();
+
+	private StyleConfigCache() {
+	}
+
+	/**
+	 * Returns the compiled configuration for a semester, loading it on first use.
+	 */
+	static StyleConfig get(String semester) throws IOException, CheckstyleException {
+		IndexEntry entry = resolve(semester);
+
+		StyleConfig config = CONFIGS.get(entry.key);
+		if (config == null) {
+			// only loads of the same config wait for each other
+			synchronized (LOAD_LOCKS.computeIfAbsent(entry.key, k -> new Object())) {
+				config = CONFIGS.get(entry.key);
+				if (config == null) {
+					config = load(entry.checks, entry.suppressions);
+					CONFIGS.put(entry.key, config);
+				}
+			}
+		}
+		return config;
+	}
+
+	/**
+	 * Drops every cached configuration. The next call to {@link #get(String)} reloads from XML.
+	 */
+	static void invalidate() {
+		CONFIGS.clear();
+	}
+
+	/**
+	 * Determines the checks XML and suppressions XML to use for a semester: the first
+	 * entry of the index whose pattern matches it. Remembered per semester, since the
+	 * index never changes.
+	 */
+	private static IndexEntry resolve(String semester) throws IOException {
+		IndexEntry entry = RESOLVED.get(semester);
+		if (entry == null) {
+			for (IndexEntry e : IndexHolder.get()) {
+				if (e.semester.matcher(semester).matches()) {
+					entry = e;
+					break;
+				}
+			}
+			if (entry == null) {
+				throw new IOException("No config file found for semester: " + semester);
+			}
+			RESOLVED.put(semester, entry);
+		}
+		return entry;
+	}
+
+	/**
+	 * Reads and checks CONFIG_ROOT/index.txt. Each line is
+	 * "semester regex TAB checks XML TAB suppressions XML"; empty lines and lines
+	 * beginning with '#' are ignored.
+	 */
+	private static List<IndexEntry> readIndex() throws IOException {
+		InputStream indexStream = StyleConfigCache.class.getClassLoader().getResourceAsStream(CONFIG_ROOT + "index.txt");
+		if (indexStream == null) {
+			throw new IOException("style check config index file not found");
+		}
+		List<IndexEntry> entries = new ArrayList<>();
+		try (BufferedReader r = new BufferedReader(new InputStreamReader(indexStream, StandardCharsets.UTF_8))) {
+			String line;
+			for (int lineNo = 1; (line = r.readLine()) != null; lineNo++) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				String[] data = line.split("\t");
+				if (data.length != 3) {
+					throw new IOException("style check config index line " + lineNo + ": expected 3 tab-separated fields");
+				}
+				Pattern pattern;
+				try {
+					pattern = Pattern.compile(data[0]);
+				} catch (PatternSyntaxException e) {
+					throw new IOException("style check config index line " + lineNo + ": bad semester pattern: " + e.getDescription());
+				}
+				for (int i = 1; i < 3; i++) {
+					if (StyleConfigCache.class.getClassLoader().getResource(CONFIG_ROOT + data[i]) == null) {
+						throw new IOException("style check config index line " + lineNo + ": file not found: " + data[i]);
+					}
+				}
+				entries.add(new IndexEntry(pattern, CONFIG_ROOT + data[1], CONFIG_ROOT + data[2]));
+			}
+		}
+		return Collections.unmodifiableList(entries);
+	}
+
+	private static StyleConfig load(String configChecks, String configSuppressions) throws IOException, CheckstyleException {
+		ClassLoader loader = StyleConfigCache.class.getClassLoader();
+		PropertyResolver properties = new ConfigProperties(loader.getResource(configSuppressions).toString());
+
+		byte[] checksXml = readResource(configChecks);
+		MessageDigest digest = newDigest();
+		digest.update(checksXml);
+		digest.update(readResource(configSuppressions));
+
+		InputSource configSource = new InputSource(new ByteArrayInputStream(checksXml));
+
+		Configuration config = ConfigurationLoader.loadConfiguration(configSource, properties, ConfigurationLoader.IgnoredModulesOptions.OMIT);
+		return new StyleConfig(configChecks, configSuppressions, config, digest.digest());
+	}
+
+	private static byte[] readResource(String name) throws IOException {
+		try (InputStream in = StyleConfigCache.class.getClassLoader().getResourceAsStream(name)) {
+			if (in == null) {
+				throw new IOException("style check config file not found: " + name);
+			}
+			return in.readAllBytes();
+		}
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/** One line of the config index. */
+	private static class IndexEntry {
+		final Pattern semester;
+		final String checks;
+		final String suppressions;
+		/** Key of the compiled config, shared by every entry naming the same files. */
+		final String key;
+
+		IndexEntry(Pattern semester, String checks, String suppressions) {
+			this.semester = semester;
+			this.checks = checks;
+			this.suppressions = suppressions;
+			this.key = checks + "\t" + suppressions;
+		}
+	}
+
+	/** The parsed index, read on first use. A broken index is reported on every use rather than cached. */
+	private static class IndexHolder {
+		private static volatile List<IndexEntry> index;
+
+		static List<IndexEntry> get() throws IOException {
+			List<IndexEntry> result = index;
+			if (result == null) {
+				synchronized (IndexHolder.class) {
+					result = index;
+					if (result == null) {
+						result = readIndex();
+						index = result;
+					}
+				}
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Properties for expanding one config: ${checkstyle.suppress.file} is that config's
+	 * suppressions file, and anything else is a system property. Nothing global is
+	 * changed, so configs can be loaded concurrently.
+	 */
+	private static class ConfigProperties implements PropertyResolver {
+		private static final String SUPPRESS_FILE = "checkstyle.suppress.file";
+
+		private final String suppressFile;
+
+		ConfigProperties(String suppressFile) {
+			this.suppressFile = suppressFile;
+		}
+
+		@Override
+		public String resolve(String name) {
+			return SUPPRESS_FILE.equals(name) ? suppressFile : System.getProperty(name);
+		}
+	}
+}
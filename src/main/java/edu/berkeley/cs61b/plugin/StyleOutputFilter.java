@@ -0,0 +1,91 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.execution.filters.Filter;
+import com.intellij.execution.filters.OpenFileHyperlinkInfo;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+
+/**
+ * Turns the "path:line[:column]: message" lines printed by {@link LoggingAuditListener}
+ * into hyperlinks to the reported location.
+ *
+ * Violations are printed as plain text so the console can take them in large chunks;
+ * this filter adds the links afterwards. Paths the listener has already resolved are
+ * looked up by their display path; other relative paths are resolved against the
+ * project base directory.
+ */
+class StyleOutputFilter implements Filter {
+	private static final Pattern LOCATION = Pattern.compile("^(.+?):(\\d+)(?::(\\d+))?: ");
+
+	private final Project project;
+	private final Map<String, VirtualFile> files = new ConcurrentHashMap<>();
+
+	/** The last path resolved, since consecutive lines are usually for the same file. */
+	private String lastPath;
+	private VirtualFile lastFile;
+
+	StyleOutputFilter(Project project) {
+		this.project = project;
+	}
+
+	@Nullable
+	@Override
+	public Result applyFilter(@NotNull String line, int entireLength) {
+		Matcher m = LOCATION.matcher(line);
+		if (!m.find()) {
+			return null;
+		}
+		VirtualFile file = resolve(m.group(1));
+		if (file == null) {
+			return null;
+		}
+		int lineNo = Integer.parseInt(m.group(2));
+		int column = m.group(3) == null ? 0 : Integer.parseInt(m.group(3));
+
+		int lineStart = entireLength - line.length();
+		return new Result(lineStart, lineStart + m.end() - 2,
+				new OpenFileHyperlinkInfo(project, file, lineNo - 1, column));
+	}
+
+	/**
+	 * Records that lines starting with displayPath refer to file.
+	 */
+	void register(String displayPath, VirtualFile file) {
+		files.put(displayPath, file);
+	}
+
+	/**
+	 * Forgets all registered paths, e.g. when the console is cleared.
+	 */
+	void clear() {
+		files.clear();
+	}
+
+	@Nullable
+	private synchronized VirtualFile resolve(String path) {
+		VirtualFile registered = files.get(path);
+		if (registered != null) {
+			return registered;
+		}
+		if (!path.equals(lastPath)) {
+			String fullPath = path;
+			if (!Paths.get(path).isAbsolute() && project.getBasePath() != null) {
+				fullPath = project.getBasePath() + "/" + path;
+			}
+			lastPath = path;
+			lastFile = LocalFileSystem.getInstance().findFileByPath(FileUtil.toSystemIndependentName(fullPath));
+		}
+		return lastFile;
+	}
+}
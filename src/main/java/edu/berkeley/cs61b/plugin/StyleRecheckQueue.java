@@ -0,0 +1,125 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.intellij.execution.ui.ConsoleView;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowManager;
+import com.intellij.ui.content.Content;
+import com.intellij.util.Alarm;
+
+/**
+ * Coalesces files that need re-checking into batched background runs.
+ *
+ * Every {@link #add} restarts a short quiet period; once it passes, all files added
+ * so far are checked in one {@link CheckStyleTask}. Its output is added to the
+ * "Style Checker" console, and its results replace those files' results, leaving the
+ * other files' results from earlier runs as they are. Files added while a run is in
+ * progress, or before the tool window has its content, wait for the next run.
+ */
+@Service(Service.Level.PROJECT)
+public final class StyleRecheckQueue implements Disposable {
+	private static final int DELAY_MS = 500;
+
+	private final Project project;
+	private final Alarm alarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD, this);
+	private final Set<VirtualFile> pending = new LinkedHashSet<>();
+	private boolean running;
+
+	public StyleRecheckQueue(Project project) {
+		this.project = project;
+	}
+
+	static StyleRecheckQueue getInstance(@NotNull Project project) {
+		return project.getService(StyleRecheckQueue.class);
+	}
+
+	/**
+	 * Queues file to be re-checked in the next batch.
+	 */
+	void add(VirtualFile file) {
+		synchronized (pending) {
+			pending.add(file);
+		}
+		schedule();
+	}
+
+	/**
+	 * Starts a run over files queued before the tool window had its content, if any.
+	 */
+	void contentCreated() {
+		synchronized (pending) {
+			if (pending.isEmpty()) {
+				return;
+			}
+		}
+		schedule();
+	}
+
+	@Override
+	public void dispose() {
+		synchronized (pending) {
+			pending.clear();
+		}
+	}
+
+	private void schedule() {
+		if (alarm.isDisposed()) {
+			return;
+		}
+		alarm.cancelAllRequests();
+		alarm.addRequest(this::flush, DELAY_MS);
+	}
+
+	/**
+	 * Starts a run over the pending files, unless one is in progress or the tool window
+	 * has no content yet, in which case they stay queued. Runs on the EDT.
+	 */
+	private void flush() {
+		if (running || project.isDisposed()) {
+			return;
+		}
+		ToolWindow toolWindow = ToolWindowManager.getInstance(project).getToolWindow("Style Checker");
+		Content content = toolWindow == null ? null : toolWindow.getContentManager().findContent(CheckStyleToolWindowFactory.CONSOLE_TAB);
+		if (content == null) {
+			return;
+		}
+		VirtualFile[] files;
+		synchronized (pending) {
+			pending.removeIf(f -> !f.isValid());
+			if (pending.isEmpty()) {
+				return;
+			}
+			files = pending.toArray(VirtualFile.EMPTY_ARRAY);
+			pending.clear();
+		}
+		ConsoleView consoleView = content.getUserData(CheckStyleToolWindowFactory.KEY_CONSOLE);
+		StyleOutputFilter filter = content.getUserData(CheckStyleToolWindowFactory.KEY_FILTER);
+		StyleResultsPanel results = content.getUserData(CheckStyleToolWindowFactory.KEY_RESULTS);
+
+		// the other files' results still stand; only these are replaced by the run's
+		running = true;
+		results.removeFiles(Arrays.asList(files));
+		ProgressManager.getInstance().run(new CheckStyleTask(project, files, consoleView, filter, results) {
+			@Override
+			public void onFinished() {
+				running = false;
+				synchronized (pending) {
+					if (pending.isEmpty()) {
+						return;
+					}
+				}
+				schedule();
+			}
+		});
+	}
+}
@@ -0,0 +1,366 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+
+/**
+ * Cache of per-file style checker results for a project.
+ *
+ * Results are looked up in memory first, where they are reused only while the
+ * modification stamp of the file's text (see {@link DocumentSource#getStamp}) and the
+ * compiled config it was checked with are unchanged. Memory holds the most recently
+ * used {@link #MAX_RESULTS} files, and is emptied when the config changes and purged of
+ * files that are deleted.
+ * Misses fall back to a {@link StyleResultStore} under the IDE system directory,
+ * keyed by the file's project-relative path and text, so results also survive IDE
+ * restarts. A file that has to be checked is recorded under the stamp and text its
+ * {@link Session#source source} actually loaded, which may be newer than what it was
+ * looked up with.
+ */
+@Service(Service.Level.PROJECT)
+public final class StyleResultCache implements Disposable {
+	private static final Logger LOG = Logger.getInstance(StyleResultCache.class);
+	/** Most files whose results are kept in memory; the rest are only in the store. */
+	private static final int MAX_RESULTS = 2048;
+
+	private final Project project;
+	/** Results by file path, least recently used first. */
+	private final Map<String, Result> results = Collections.synchronizedMap(
+			new LinkedHashMap<String, Result>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, Result> eldest) {
+					return size() > MAX_RESULTS;
+				}
+			});
+	/** The config of the latest session; results checked with any other can't be reused. */
+	private StyleConfig config;
+	private StyleResultStore store;
+	private boolean storeFailed;
+
+	public StyleResultCache(Project project) {
+		this.project = project;
+	}
+
+	static StyleResultCache getInstance(@NotNull Project project) {
+		return project.getService(StyleResultCache.class);
+	}
+
+	/**
+	 * Starts looking up and recording results for one run checked with config.
+	 */
+	synchronized Session startSession(StyleConfig config) {
+		if (config != this.config) {
+			results.clear();
+			this.config = config;
+		}
+		return new Session(config);
+	}
+
+	void clear() {
+		results.clear();
+	}
+
+	/**
+	 * Forgets the in-memory results of file, or of every file under it if it is a
+	 * directory, e.g. once it is deleted.
+	 */
+	void remove(VirtualFile file) {
+		String path = file.getPath();
+		String prefix = path + "/";
+		synchronized (results) {
+			results.keySet().removeIf(p -> p.equals(path) || p.startsWith(prefix));
+		}
+	}
+
+	@Override
+	public synchronized void dispose() {
+		if (store != null) {
+			try {
+				store.close();
+			} catch (IOException e) {
+				LOG.warn("could not close style result store", e);
+			}
+			store = null;
+		}
+	}
+
+	/**
+	 * Returns file's path relative to the project directory, or its full path if it is
+	 * outside of it. The store is per project, so this identifies the file within it.
+	 */
+	private String relativePath(VirtualFile file) {
+		String path = file.getPath();
+		String base = project.getBasePath();
+		if (base != null && path.startsWith(base + "/")) {
+			return path.substring(base.length() + 1);
+		}
+		return path;
+	}
+
+	/**
+	 * Returns the name the checker reports file under in its events.
+	 */
+	private static String eventFileName(VirtualFile file) {
+		return new DocumentSource(file).getFile().getAbsolutePath();
+	}
+
+	@Nullable
+	private synchronized StyleResultStore getStore() {
+		if (store == null && !storeFailed) {
+			Path path = Paths.get(PathManager.getSystemPath(), "cs61b-style", project.getLocationHash() + ".dat");
+			try {
+				store = StyleResultStore.open(path);
+			} catch (IOException e) {
+				LOG.warn("could not open style result store " + path, e);
+				storeFailed = true;
+			}
+		}
+		return store;
+	}
+
+	/** The events and error count of one checked file. */
+	static class Result {
+		private final long stamp;
+		private final StyleConfig config;
+		private final AuditEventBuffer events;
+		private final int numErrs;
+
+		Result(long stamp, StyleConfig config, AuditEventBuffer events, int numErrs) {
+			this.stamp = stamp;
+			this.config = config;
+			this.events = events;
+			this.numErrs = numErrs;
+		}
+
+		/** This file's events, to send to a listener again. */
+		AuditEventBuffer getEvents() {
+			return events;
+		}
+
+		int getNumErrs() {
+			return numErrs;
+		}
+	}
+
+	/**
+	 * Looks up cached results for the files of one run, and records the results of the
+	 * files that had to be checked.
+	 */
+	class Session {
+		private final StyleConfig config;
+		private final String pluginVersion = PluginUtils.getPluginVersion();
+		/** The dirty files by the name the checker reports them under. */
+		private final Map<String, Dirty> dirtyByName = new ConcurrentHashMap<>();
+
+		private Session(StyleConfig config) {
+			this.config = config;
+		}
+
+		/**
+		 * Returns the cached result for file, or null if it has to be checked, in which
+		 * case it is added to the dirty files and should be checked from {@link #source}.
+		 *
+		 * Only a miss in memory goes to the store. A file without unsaved edits whose disk
+		 * timestamp and length are those recorded when it was last hashed is looked up
+		 * under the key recorded then; only otherwise is its text read and hashed.
+		 */
+		@Nullable
+		Result lookup(VirtualFile file) {
+			long stamp = DocumentSource.getStamp(file);
+			Result result = results.get(file.getPath());
+			if (result != null && result.stamp == stamp && result.config == config) {
+				return result;
+			}
+
+			String path = relativePath(file);
+			StyleResultStore store = getStore();
+			if (store != null) {
+				try {
+					byte[] key = null;
+					byte[] stampKey = null;
+					long timeStamp = file.getTimeStamp();
+					long length = file.getLength();
+					if (!DocumentSource.hasUnsavedChanges(file)) {
+						stampKey = StyleResultStore.stampKey(config, pluginVersion, path);
+						key = store.getContentKey(stampKey, timeStamp, length);
+					}
+					if (key == null) {
+						byte[] contents = DocumentSource.getContents(DocumentSource.getText(file));
+						key = StyleResultStore.key(config, pluginVersion, path, contents);
+						if (stampKey != null) {
+							store.putStamp(stampKey, timeStamp, length, key);
+						}
+					}
+					StyleResultStore.StoredResult stored = store.get(key, file.getPath());
+					if (stored != null) {
+						result = new Result(stamp, config, stored.events, stored.numErrs);
+						results.put(file.getPath(), result);
+						return result;
+					}
+				} catch (IOException e) {
+					LOG.warn("could not read " + file.getPath(), e);
+				}
+			}
+
+			dirtyByName.put(eventFileName(file), new Dirty(file, path));
+			return null;
+		}
+
+		/**
+		 * Returns the source to check file from, after {@link #lookup} found no result for
+		 * it. Its result is recorded under the stamp and text the source loads.
+		 */
+		StyleChecker.Source source(VirtualFile file) {
+			Dirty dirty = dirtyByName.get(eventFileName(file));
+			return dirty != null ? new DirtySource(dirty) : new DocumentSource(file);
+		}
+
+		/**
+		 * Returns a listener that forwards every event to delegate and caches each dirty
+		 * file's events as it finishes. Events are matched to dirty files by file name, so
+		 * the checker may skip files (a cancelled run) or report them in any order.
+		 */
+		AuditListener recorder(AuditListener delegate) {
+			return new Recorder(delegate);
+		}
+
+		private void record(Dirty dirty, AuditEventBuffer events, int numErrs) {
+			if (dirty.stamp == null) {
+				// not loaded, so there is no text to record a result for
+				return;
+			}
+			results.put(dirty.file.getPath(), new Result(dirty.stamp, config, events, numErrs));
+
+			StyleResultStore store = getStore();
+			if (dirty.key != null && store != null) {
+				try {
+					store.put(dirty.key, events.getErrors(), numErrs);
+				} catch (IOException e) {
+					LOG.warn("could not write style result store", e);
+				}
+			}
+		}
+
+		/**
+		 * A file lookup found no result for, and what to record its result under, set by
+		 * its source when the checker loads it.
+		 */
+		private class Dirty {
+			final VirtualFile file;
+			final String path;
+			volatile Long stamp;
+			volatile byte[] key;
+
+			Dirty(VirtualFile file, String path) {
+				this.file = file;
+				this.path = path;
+			}
+		}
+
+		/** The source of a dirty file, which hashes the text it gives the checker. */
+		private class DirtySource extends DocumentSource {
+			private final Dirty dirty;
+
+			DirtySource(Dirty dirty) {
+				super(dirty.file);
+				this.dirty = dirty;
+			}
+
+			@Override
+			public FileText load() throws IOException {
+				// the stamp is read first, so text edited meanwhile is only ever recorded
+				// under an older stamp, which the next lookup misses
+				long stamp = DocumentSource.getStamp(dirty.file);
+				CharSequence text = DocumentSource.getText(dirty.file);
+				if (getStore() != null) {
+					dirty.key = StyleResultStore.key(config, pluginVersion, dirty.path,
+							DocumentSource.getContents(text));
+				}
+				dirty.stamp = stamp;
+				return new FileText(getFile(), StyleChecker.splitLines(text));
+			}
+		}
+
+		private class Recorder implements AuditListener {
+			private final AuditListener delegate;
+
+			/** The dirty file being reported, or null if its events are not to be cached. */
+			private Dirty current;
+			private AuditEventBuffer events;
+			private int numErrs;
+
+			Recorder(AuditListener delegate) {
+				this.delegate = delegate;
+			}
+
+			@Override
+			public void auditStarted(AuditEvent e) {
+				delegate.auditStarted(e);
+			}
+
+			@Override
+			public void auditFinished(AuditEvent e) {
+				delegate.auditFinished(e);
+			}
+
+			@Override
+			public void fileStarted(AuditEvent e) {
+				current = dirtyByName.get(e.getFileName());
+				events = new AuditEventBuffer();
+				numErrs = 0;
+				events.fileStarted(e);
+				delegate.fileStarted(e);
+			}
+
+			@Override
+			public void fileFinished(AuditEvent e) {
+				if (events != null) {
+					events.fileFinished(e);
+					if (current != null) {
+						record(current, events, numErrs);
+					}
+					events = null;
+					current = null;
+				}
+				delegate.fileFinished(e);
+			}
+
+			@Override
+			public void addError(AuditEvent e) {
+				if (events != null) {
+					events.addError(e);
+					if (e.getSeverityLevel() == SeverityLevel.ERROR) {
+						numErrs++;
+					}
+				}
+				delegate.addError(e);
+			}
+
+			@Override
+			public void addException(AuditEvent e, Throwable throwable) {
+				// don't cache a file that could not be checked
+				events = null;
+				delegate.addException(e, throwable);
+			}
+		}
+	}
+}
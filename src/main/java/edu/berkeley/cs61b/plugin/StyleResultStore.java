@@ -0,0 +1,345 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.Nullable;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+
+/**
+ * Append-only on-disk store of per-file style checker results.
+ *
+ * Records are keyed by a hash of the file's project-relative path and text, the
+ * compiled config and the plugin version, and hold the file's complete violation
+ * list, so a file whose contents are unchanged since any earlier run (even in an
+ * earlier IDE session) is replayed without being parsed. The path is part of the key
+ * because the bundled suppressions depend on it (e.g. test files are exempt from some
+ * checks), so the same contents under another name may give other violations.
+ *
+ * So that an unchanged file need not be read and hashed to find its key, the store
+ * also keeps stamp records, keyed by the file's path alone (with the config and
+ * plugin version), which give the file's disk timestamp and length when it was last
+ * hashed and the key its contents had then. Opening the store maps the file and indexes the
+ * record headers only; record bodies are decoded on lookup.
+ *
+ * File format: MAGIC, VERSION, then records of
+ * {@code key[KEY_SIZE] bodyLength:int body}, where body is
+ * {@code numErrs:int count:int} followed by count violations of
+ * {@code line:int column:int columnCharIndex:int severity:byte source module key message}
+ * (strings are a UTF-8 byte count followed by the bytes). A stamp record has the
+ * same framing, with a body of {@code timeStamp:long length:long key[KEY_SIZE]}.
+ * A later record with the same key replaces an earlier one.
+ */
+class StyleResultStore {
+	private static final int MAGIC = 0x61b5c7e0;
+	private static final int VERSION = 5;
+	private static final int HEADER_SIZE = 8;
+	private static final int KEY_SIZE = 16;
+	private static final int STAMP_BODY_SIZE = 2 * Long.BYTES + KEY_SIZE;
+	/** Smallest encoded violation: line, column, char index, severity, and four empty strings. */
+	private static final int MIN_VIOLATION_SIZE = 3 * Integer.BYTES + 1 + 4 * Integer.BYTES;
+	/** Told apart in the hashed keys, so the two kinds of records can't collide. */
+	private static final byte RESULT_RECORD = 0;
+	private static final byte STAMP_RECORD = 1;
+	/** Stores bigger than this are discarded on open rather than compacted. */
+	private static final long MAX_SIZE = 64L << 20;
+
+	private final Map<ByteBuffer, ByteBuffer> index = new HashMap<>();
+	private FileChannel channel;
+	/** Offset at which the next record is written. */
+	private long end;
+
+	/**
+	 * Opens the store at path, creating it if needed. A store that is unreadable,
+	 * from another format version, or too big is started over.
+	 */
+	static StyleResultStore open(Path path) throws IOException {
+		StyleResultStore store = new StyleResultStore();
+		Files.createDirectories(path.getParent());
+		if (Files.exists(path) && Files.size(path) > MAX_SIZE) {
+			Files.delete(path);
+		}
+		store.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		store.load();
+		return store;
+	}
+
+	/**
+	 * Computes the key of the file at path with the given contents (its text, see
+	 * {@link DocumentSource#getContents}), checked with config by plugin version.
+	 */
+	static byte[] key(StyleConfig config, String pluginVersion, String path, byte[] contents) {
+		MessageDigest digest = startDigest(RESULT_RECORD, config, pluginVersion, path);
+		digest.update(contents);
+		return toKey(digest);
+	}
+
+	/**
+	 * Computes the key of the stamp record of the file at path, checked with config by
+	 * plugin version.
+	 */
+	static byte[] stampKey(StyleConfig config, String pluginVersion, String path) {
+		return toKey(startDigest(STAMP_RECORD, config, pluginVersion, path));
+	}
+
+	private static MessageDigest startDigest(byte kind, StyleConfig config, String pluginVersion, String path) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		digest.update(kind);
+		digest.update(config.getDigest());
+		digest.update(pluginVersion.getBytes(StandardCharsets.UTF_8));
+		// length-prefixed, so the path can't run into the contents
+		byte[] pathBytes = path.getBytes(StandardCharsets.UTF_8);
+		digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(pathBytes.length).array());
+		digest.update(pathBytes);
+		return digest;
+	}
+
+	private static byte[] toKey(MessageDigest digest) {
+		byte[] key = new byte[KEY_SIZE];
+		System.arraycopy(digest.digest(), 0, key, 0, KEY_SIZE);
+		return key;
+	}
+
+	/**
+	 * Returns the key recorded under stampKey if it was recorded for a file with the given
+	 * disk timestamp and length, otherwise null.
+	 */
+	@Nullable
+	synchronized byte[] getContentKey(byte[] stampKey, long timeStamp, long length) {
+		ByteBuffer body = index.get(ByteBuffer.wrap(stampKey));
+		if (body == null || body.remaining() != STAMP_BODY_SIZE) {
+			return null;
+		}
+		body = body.duplicate();
+		if (body.getLong() != timeStamp || body.getLong() != length) {
+			return null;
+		}
+		byte[] key = new byte[KEY_SIZE];
+		body.get(key);
+		return key;
+	}
+
+	/**
+	 * Records that a file with the given disk timestamp and length had contents with key.
+	 */
+	synchronized void putStamp(byte[] stampKey, long timeStamp, long length, byte[] key) throws IOException {
+		ByteBuffer body = ByteBuffer.allocate(STAMP_BODY_SIZE);
+		body.putLong(timeStamp).putLong(length).put(key);
+		append(stampKey, body.array());
+	}
+
+	/**
+	 * Returns the stored result for key as a replayable buffer of events for fileName,
+	 * or null if there is none. A malformed record is a miss, and {@link #discard
+	 * discards} the store.
+	 */
+	@Nullable
+	synchronized StoredResult get(byte[] key, String fileName) throws IOException {
+		ByteBuffer body = index.get(ByteBuffer.wrap(key));
+		if (body == null) {
+			return null;
+		}
+		StoredResult result = decode(body.duplicate(), fileName);
+		if (result == null) {
+			discard();
+		}
+		return result;
+	}
+
+	/**
+	 * Decodes a result record body into events for fileName, or returns null if the
+	 * body is malformed.
+	 */
+	@Nullable
+	private StoredResult decode(ByteBuffer body, String fileName) {
+		if (body.remaining() < 2 * Integer.BYTES) {
+			return null;
+		}
+		int numErrs = body.getInt();
+		int count = body.getInt();
+		if (numErrs < 0 || count < 0 || count > body.remaining() / MIN_VIOLATION_SIZE) {
+			return null;
+		}
+
+		SeverityLevel[] levels = SeverityLevel.values();
+		AuditEventBuffer events = new AuditEventBuffer();
+		events.fileStarted(new AuditEvent(this, fileName));
+		for (int i = 0; i < count; i++) {
+			if (body.remaining() < MIN_VIOLATION_SIZE) {
+				return null;
+			}
+			int line = body.getInt();
+			int column = body.getInt();
+			int columnCharIndex = body.getInt();
+			int level = body.get();
+			String source = getString(body);
+			String moduleId = getString(body);
+			String messageKey = getString(body);
+			String message = getString(body);
+			if (level < 0 || level >= levels.length
+					|| source == null || moduleId == null || messageKey == null || message == null) {
+				return null;
+			}
+			SeverityLevel severity = levels[level];
+			// the message is already formatted, so pass it through as the only argument
+			Violation violation = new Violation(line, column, columnCharIndex, null, messageKey,
+					new Object[]{message}, severity, moduleId.isEmpty() ? null : moduleId, loadSource(source), "{0}");
+			events.addError(new AuditEvent(this, fileName, violation));
+		}
+		if (body.hasRemaining()) {
+			return null;
+		}
+		events.fileFinished(new AuditEvent(this, fileName));
+		return new StoredResult(events, numErrs);
+	}
+
+	/**
+	 * Appends the result of checking a file to the store.
+	 */
+	synchronized void put(byte[] key, List<AuditEvent> errors, int numErrs) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(numErrs);
+		out.writeInt(errors.size());
+		for (AuditEvent e : errors) {
+			out.writeInt(e.getLine());
+			out.writeInt(e.getColumn());
+			out.writeInt(e.getViolation().getColumnCharIndex());
+			out.writeByte(e.getSeverityLevel().ordinal());
+			putString(out, e.getSourceName());
+			putString(out, e.getModuleId() == null ? "" : e.getModuleId());
+			putString(out, e.getViolation().getKey());
+			putString(out, e.getMessage());
+		}
+		out.flush();
+		append(key, bytes.toByteArray());
+	}
+
+	/** Writes a record with body under key, and indexes it. */
+	private void append(byte[] key, byte[] body) throws IOException {
+		ByteBuffer record = ByteBuffer.allocate(KEY_SIZE + 4 + body.length);
+		record.put(key).putInt(body.length).put(body).flip();
+		write(record);
+		index.put(ByteBuffer.wrap(key.clone()), ByteBuffer.wrap(record.array(), KEY_SIZE + 4, body.length).slice());
+	}
+
+	synchronized void close() throws IOException {
+		index.clear();
+		channel.close();
+	}
+
+	private void load() throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		channel.read(header, 0);
+		header.flip();
+		if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+			reset();
+			return;
+		}
+
+		ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		data.position(HEADER_SIZE);
+		while (data.remaining() >= KEY_SIZE + 4) {
+			int start = data.position();
+			ByteBuffer key = data.slice().limit(KEY_SIZE);
+			int length = data.getInt(start + KEY_SIZE);
+			if (length < 0 || length > data.remaining() - KEY_SIZE - 4) {
+				break;
+			}
+			data.position(start + KEY_SIZE + 4);
+			index.put(key, data.slice().limit(length));
+			data.position(data.position() + length);
+		}
+		// anything past the last whole record was cut short by a crash; overwrite it.
+		// (the file can't be truncated while mapped on Windows.)
+		end = data.position();
+	}
+
+	/**
+	 * Forgets every record, since one was found to be malformed and the rest can't be
+	 * trusted either, and spoils the header so the store is started over when next
+	 * opened. (The file can't be truncated while mapped on Windows.) Records put from
+	 * now on are still used until then.
+	 */
+	private void discard() throws IOException {
+		index.clear();
+		ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+		while (header.hasRemaining()) {
+			channel.write(header, header.position());
+		}
+	}
+
+	private void reset() throws IOException {
+		channel.truncate(0);
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC).putInt(VERSION).flip();
+		write(header);
+	}
+
+	private void write(ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			end += channel.write(buffer, end);
+		}
+	}
+
+	private static void putString(DataOutputStream out, String s) throws IOException {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/** Reads a string, or returns null if its length does not fit in what is left. */
+	@Nullable
+	private static String getString(ByteBuffer in) {
+		if (in.remaining() < Integer.BYTES) {
+			return null;
+		}
+		int length = in.getInt();
+		if (length < 0 || length > in.remaining()) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static Class<?> loadSource(String name) {
+		try {
+			return Class.forName(name, false, Checker.class.getClassLoader());
+		} catch (ClassNotFoundException e) {
+			return Checker.class;
+		}
+	}
+
+	/** The replayable events and error count of one stored file. */
+	static class StoredResult {
+		final AuditEventBuffer events;
+		final int numErrs;
+
+		StoredResult(AuditEventBuffer events, int numErrs) {
+			this.events = events;
+			this.numErrs = numErrs;
+		}
+	}
+}
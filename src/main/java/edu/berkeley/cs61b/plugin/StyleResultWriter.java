@@ -0,0 +1,96 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Writes the result of checking one submission as JSON:
+ *
+ * <pre>
+ * {"semester": "sp25", "files": 12, "errors": 3, "violations": [
+ *   {"file": "proj0/Game.java", "line": 4, "column": 1, "severity": "error",
+ *    "check": "...", "key": "...", "message": "..."}, ...]}
+ * </pre>
+ *
+ * File names are relative to the submission root, with '/' separators.
+ */
+class StyleResultWriter {
+	private final Writer out;
+	private final Path root;
+
+	StyleResultWriter(Writer out, Path root) {
+		this.out = out;
+		this.root = root.toAbsolutePath().normalize();
+	}
+
+	/**
+	 * Writes the violations in errors, whose file names are absolute paths and whose
+	 * checks are the checks' class names.
+	 */
+	void write(String semester, int numFiles, int numErrs, ViolationStore errors) throws IOException {
+		out.write("{\"semester\": ");
+		writeString(semester);
+		out.write(", \"files\": " + numFiles + ", \"errors\": " + numErrs + ", \"violations\": [");
+		boolean[] first = {true};
+		errors.forEach(v -> {
+			out.write(first[0] ? "\n" : ",\n");
+			first[0] = false;
+			out.write("  {\"file\": ");
+			writeString(relativize(v.getFile()));
+			out.write(", \"line\": " + v.getLine() + ", \"column\": " + v.getColumn() + ", \"severity\": ");
+			writeString(v.getSeverity().getName());
+			out.write(", \"check\": ");
+			writeString(v.getCheck());
+			out.write(", \"key\": ");
+			writeString(v.getKey());
+			out.write(", \"message\": ");
+			writeString(v.getMessage());
+			out.write("}");
+		});
+		out.write("]}\n");
+	}
+
+	private String relativize(String fileName) {
+		Path path = Paths.get(fileName).toAbsolutePath().normalize();
+		if (path.startsWith(root)) {
+			path = root.relativize(path);
+		}
+		return path.toString().replace(File.separatorChar, '/');
+	}
+
+	private void writeString(String s) throws IOException {
+		StringBuilder sb = new StringBuilder(s.length() + 2);
+		sb.append('"');
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			switch (c) {
+				case '"':
+					sb.append("\\\"");
+					break;
+				case '\\':
+					sb.append("\\\\");
+					break;
+				case '\n':
+					sb.append("\\n");
+					break;
+				case '\r':
+					sb.append("\\r");
+					break;
+				case '\t':
+					sb.append("\\t");
+					break;
+				default:
+					if (c < 0x20) {
+						sb.append(String.format("\\u%04x", (int) c));
+					} else {
+						sb.append(c);
+					}
+			}
+		}
+		sb.append('"');
+		out.write(sb.toString());
+	}
+}
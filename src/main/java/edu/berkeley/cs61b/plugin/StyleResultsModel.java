@@ -0,0 +1,350 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+import javax.swing.event.EventListenerList;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.vfs.VirtualFile;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+/**
+ * Tree model of style violations, grouped by file and then by check.
+ *
+ * Violations are kept in each run's {@link ViolationStore}; check nodes only hold
+ * row numbers, and violation nodes are read back as the tree asks for them, so the
+ * tree only creates objects for what is expanded and on screen. A filter, if set, keeps only the violations whose
+ * message, check, message key or file path contains it (ignoring case), and the
+ * groups that still have any. The matches are found by {@link #filter}, which may run
+ * off the EDT; everything else must only be used on the EDT.
+ */
+class StyleResultsModel implements TreeModel {
+	private static final Logger LOG = Logger.getInstance(StyleResultsModel.class);
+
+	private final Object root = new Object();
+	private final EventListenerList listeners = new EventListenerList();
+	private final List<FileNode> files = new ArrayList<>();
+	private List<FileNode> visible = new ArrayList<>();
+	private String filter = "";
+
+	/**
+	 * Adds the violations of one file at the end of the tree.
+	 */
+	void addFile(FileNode file) {
+		if (file.store.isClosed()) {
+			// left over from a run whose results were cleared
+			return;
+		}
+		files.add(file);
+		// a new file's rows are still in memory, so reading them one by one is cheap
+		FileNode shown = file.filter(filter, row -> rowMatches(file.store, row, filter));
+		if (shown != null) {
+			visible.add(shown);
+			fire(new TreeModelEvent(this, new Object[]{root}, new int[]{visible.size() - 1}, new Object[]{shown}), true);
+		}
+	}
+
+	/**
+	 * Removes every file, and closes the stores their violations were kept in.
+	 */
+	void clear() {
+		Set<ViolationStore> stores = storesOf(files);
+		files.clear();
+		visible = new ArrayList<>();
+		fireStructureChanged();
+		close(stores);
+	}
+
+	/**
+	 * Removes the files in removed, leaving the others where they are, and closes the
+	 * stores that no longer hold any file's violations.
+	 */
+	void removeFiles(Set<VirtualFile> removed) {
+		List<FileNode> gone = new ArrayList<>();
+		files.removeIf(f -> f.file != null && removed.contains(f.file) && gone.add(f));
+		if (gone.isEmpty()) {
+			return;
+		}
+		visible.removeIf(f -> f.file != null && removed.contains(f.file));
+		fireStructureChanged();
+		Set<ViolationStore> stores = storesOf(gone);
+		stores.removeAll(storesOf(files));
+		close(stores);
+	}
+
+	/**
+	 * Returns the files in the tree now, to be passed to {@link #filter}.
+	 */
+	List<FileNode> getFiles() {
+		return new ArrayList<>(files);
+	}
+
+	/**
+	 * Shows the files matching filter, as found by {@link #filter} for the files in
+	 * scanned. Files added since are filtered here, and files removed since are left out.
+	 */
+	void setFilter(String filter, List<FileNode> scanned, Map<FileNode, FileNode> matches) {
+		this.filter = filter;
+		Set<FileNode> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+		seen.addAll(scanned);
+		List<FileNode> shown = new ArrayList<>();
+		for (FileNode file : files) {
+			FileNode f = seen.contains(file) ? matches.get(file)
+					: file.filter(filter, row -> rowMatches(file.store, row, filter));
+			if (f != null) {
+				shown.add(f);
+			}
+		}
+		visible = shown;
+		fireStructureChanged();
+	}
+
+	/**
+	 * Returns the filter text typed by the user in the form the model compares with.
+	 */
+	static String normalizeFilter(String text) {
+		return text.trim().toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Returns what is left of each of files that has any violation matching filter, a
+	 * normalized filter. Each store's messages are read in one sequential pass rather
+	 * than row by row, and nothing here touches the model, so this may run off the EDT.
+	 */
+	static Map<FileNode, FileNode> filter(List<FileNode> files, String filter) {
+		Map<FileNode, FileNode> matches = new IdentityHashMap<>();
+		Map<ViolationStore, BitSet> rowsByStore = new IdentityHashMap<>();
+		for (FileNode file : files) {
+			FileNode f = file.filter(filter, row -> rowsByStore.computeIfAbsent(file.store, store -> {
+				try {
+					return store.rowsMatching(filter);
+				} catch (IOException e) {
+					// the store was closed, so its files are on their way out
+					return new BitSet();
+				}
+			}).get(row));
+			if (f != null) {
+				matches.put(file, f);
+			}
+		}
+		return matches;
+	}
+
+	@Override
+	public Object getRoot() {
+		return root;
+	}
+
+	@Override
+	public Object getChild(Object parent, int index) {
+		if (parent instanceof CheckNode) {
+			return ((CheckNode) parent).get(index);
+		}
+		return children(parent).get(index);
+	}
+
+	@Override
+	public int getChildCount(Object parent) {
+		if (parent instanceof CheckNode) {
+			return ((CheckNode) parent).rows.length;
+		}
+		return children(parent).size();
+	}
+
+	@Override
+	public boolean isLeaf(Object node) {
+		return node instanceof StyleViolation;
+	}
+
+	@Override
+	public int getIndexOfChild(Object parent, Object child) {
+		if (parent instanceof CheckNode) {
+			return child instanceof StyleViolation ? ((CheckNode) parent).indexOf((StyleViolation) child) : -1;
+		}
+		return children(parent).indexOf(child);
+	}
+
+	@Override
+	public void valueForPathChanged(TreePath path, Object newValue) {
+	}
+
+	@Override
+	public void addTreeModelListener(TreeModelListener l) {
+		listeners.add(TreeModelListener.class, l);
+	}
+
+	@Override
+	public void removeTreeModelListener(TreeModelListener l) {
+		listeners.remove(TreeModelListener.class, l);
+	}
+
+	private List<?> children(Object parent) {
+		if (parent == root) {
+			return visible;
+		} else if (parent instanceof FileNode) {
+			return ((FileNode) parent).checks;
+		}
+		return Collections.emptyList();
+	}
+
+	private static boolean rowMatches(ViolationStore store, int row, String filter) {
+		StyleViolation v;
+		try {
+			v = store.get(row);
+		} catch (IOException e) {
+			return false;
+		}
+		return v.getMessage().toLowerCase(Locale.ROOT).contains(filter)
+				|| v.getKey().toLowerCase(Locale.ROOT).contains(filter);
+	}
+
+	private static Set<ViolationStore> storesOf(List<FileNode> nodes) {
+		Set<ViolationStore> stores = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (FileNode file : nodes) {
+			stores.add(file.store);
+		}
+		return stores;
+	}
+
+	private static void close(Set<ViolationStore> stores) {
+		for (ViolationStore store : stores) {
+			try {
+				store.close();
+			} catch (IOException e) {
+				LOG.warn("could not delete style violation store", e);
+			}
+		}
+	}
+
+	private void fireStructureChanged() {
+		fire(new TreeModelEvent(this, new Object[]{root}), false);
+	}
+
+	private void fire(TreeModelEvent event, boolean inserted) {
+		for (TreeModelListener l : listeners.getListeners(TreeModelListener.class)) {
+			if (inserted) {
+				l.treeNodesInserted(event);
+			} else {
+				l.treeStructureChanged(event);
+			}
+		}
+	}
+
+	/** The violations in one file, grouped by check in the order the checks first reported. */
+	static class FileNode {
+		final VirtualFile file;
+		final String displayPath;
+		final ViolationStore store;
+		final List<CheckNode> checks;
+		final int count;
+
+		private FileNode(@Nullable VirtualFile file, String displayPath, ViolationStore store, List<CheckNode> checks) {
+			this.file = file;
+			this.displayPath = displayPath;
+			this.store = store;
+			this.checks = checks;
+			int n = 0;
+			for (CheckNode check : checks) {
+				n += check.rows.length;
+			}
+			this.count = n;
+		}
+
+		/**
+		 * Returns the node for a file whose violations are the rows of store starting at
+		 * firstRow, one per entry of checks, which names the check of each row.
+		 */
+		static FileNode of(@Nullable VirtualFile file, String displayPath, ViolationStore store, int firstRow,
+				List<String> checks) {
+			Map<String, IntArrayList> byCheck = new LinkedHashMap<>();
+			for (int i = 0; i < checks.size(); i++) {
+				byCheck.computeIfAbsent(checks.get(i), k -> new IntArrayList()).add(firstRow + i);
+			}
+			List<CheckNode> nodes = new ArrayList<>(byCheck.size());
+			for (Map.Entry<String, IntArrayList> entry : byCheck.entrySet()) {
+				nodes.add(new CheckNode(entry.getKey(), store, entry.getValue().toIntArray()));
+			}
+			return new FileNode(file, displayPath, store, nodes);
+		}
+
+		/**
+		 * Returns this file with only the violations matching filter, or null if none match.
+		 * Violations are matched by their check or, failing that, by rowMatches.
+		 */
+		@Nullable
+		private FileNode filter(String filter, IntPredicate rowMatches) {
+			if (filter.isEmpty() || displayPath.toLowerCase(Locale.ROOT).contains(filter)) {
+				return this;
+			}
+			List<CheckNode> shown = new ArrayList<>();
+			for (CheckNode check : checks) {
+				CheckNode matches = check.filter(filter, rowMatches);
+				if (matches != null) {
+					shown.add(matches);
+				}
+			}
+			return shown.isEmpty() ? null : new FileNode(file, displayPath, store, shown);
+		}
+	}
+
+	/** The violations one check reported in a file, as rows of the run's store. */
+	static class CheckNode {
+		final String check;
+		final ViolationStore store;
+		final int[] rows;
+
+		CheckNode(String check, ViolationStore store, int[] rows) {
+			this.check = check;
+			this.store = store;
+			this.rows = rows;
+		}
+
+		StyleViolation get(int index) {
+			try {
+				return store.get(rows[index]);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		int indexOf(StyleViolation v) {
+			for (int i = 0; i < rows.length; i++) {
+				if (rows[i] == v.getRow()) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		@Nullable
+		private CheckNode filter(String filter, IntPredicate rowMatches) {
+			if (check.toLowerCase(Locale.ROOT).contains(filter)) {
+				return this;
+			}
+			IntArrayList matches = new IntArrayList();
+			for (int row : rows) {
+				if (rowMatches.test(row)) {
+					matches.add(row);
+				}
+			}
+			return matches.isEmpty() ? null : new CheckNode(check, store, matches.toIntArray());
+		}
+	}
+}
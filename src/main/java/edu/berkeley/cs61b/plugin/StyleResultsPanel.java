@@ -0,0 +1,201 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.awt.BorderLayout;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import javax.swing.JPanel;
+import javax.swing.JTree;
+import javax.swing.event.DocumentEvent;
+import javax.swing.tree.TreePath;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.ui.ColoredTreeCellRenderer;
+import com.intellij.ui.DocumentAdapter;
+import com.intellij.ui.ScrollPaneFactory;
+import com.intellij.ui.SearchTextField;
+import com.intellij.ui.SimpleTextAttributes;
+import com.intellij.ui.treeStructure.Tree;
+import com.intellij.util.Alarm;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+
+/**
+ * Tree of the violations of the last run, grouped by file and check, with a filter
+ * field above it. Double-click or Enter on a violation opens it in the editor. The
+ * filter is applied once typing pauses, and its matches are found off the EDT.
+ *
+ * Files can be added and removed from any thread; the changes are made to the tree in
+ * batches on the EDT, in the order they were asked for.
+ */
+class StyleResultsPanel extends JPanel {
+	/** Quiet period after a keystroke in the filter field before the filter is applied. */
+	private static final int FILTER_DELAY_MS = 250;
+
+	private final Project project;
+	private final StyleResultsModel model = new StyleResultsModel();
+	private final Tree tree = new Tree(model);
+	private final SearchTextField filterField = new SearchTextField(false);
+
+	/** Changes to the model not yet made, in the order they were asked for. */
+	private final List<Consumer<StyleResultsModel>> pending = new ArrayList<>();
+	private boolean flushScheduled;
+
+	private final Alarm filterAlarm;
+	/** Counts filters started, so only the latest one's matches are shown. */
+	private int filterGeneration;
+
+	StyleResultsPanel(Project project, Disposable parent) {
+		super(new BorderLayout());
+		this.project = project;
+		this.filterAlarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD, parent);
+
+		tree.setRootVisible(false);
+		tree.setShowsRootHandles(true);
+		tree.setLargeModel(true);
+		tree.setCellRenderer(new Renderer());
+		tree.addMouseListener(new MouseAdapter() {
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				if (e.getClickCount() == 2) {
+					navigate(tree.getPathForLocation(e.getX(), e.getY()));
+				}
+			}
+		});
+		tree.addKeyListener(new KeyAdapter() {
+			@Override
+			public void keyPressed(KeyEvent e) {
+				if (e.getKeyCode() == KeyEvent.VK_ENTER) {
+					navigate(tree.getSelectionPath());
+				}
+			}
+		});
+
+		filterField.addDocumentListener(new DocumentAdapter() {
+			@Override
+			protected void textChanged(@NotNull DocumentEvent e) {
+				filterAlarm.cancelAllRequests();
+				filterAlarm.addRequest(StyleResultsPanel.this::applyFilter, FILTER_DELAY_MS);
+			}
+		});
+
+		add(filterField, BorderLayout.NORTH);
+		add(ScrollPaneFactory.createScrollPane(tree), BorderLayout.CENTER);
+	}
+
+	/**
+	 * Adds one file's violations to the tree. May be called from any thread.
+	 */
+	void addFile(StyleResultsModel.FileNode file) {
+		post(model -> model.addFile(file));
+	}
+
+	/**
+	 * Removes all results. May be called from any thread.
+	 */
+	void clear() {
+		synchronized (pending) {
+			pending.clear();
+		}
+		post(StyleResultsModel::clear);
+	}
+
+	/**
+	 * Removes the results of files, e.g. before they are checked again, keeping the
+	 * rest. May be called from any thread; files added after this call are kept.
+	 */
+	void removeFiles(Collection<VirtualFile> files) {
+		Set<VirtualFile> removed = new HashSet<>(files);
+		post(model -> model.removeFiles(removed));
+	}
+
+	private void post(Consumer<StyleResultsModel> change) {
+		synchronized (pending) {
+			pending.add(change);
+			if (flushScheduled) {
+				return;
+			}
+			flushScheduled = true;
+		}
+		ApplicationManager.getApplication().invokeLater(this::flush);
+	}
+
+	private void flush() {
+		List<Consumer<StyleResultsModel>> changes;
+		synchronized (pending) {
+			changes = new ArrayList<>(pending);
+			pending.clear();
+			flushScheduled = false;
+		}
+		for (Consumer<StyleResultsModel> change : changes) {
+			change.accept(model);
+		}
+	}
+
+	/**
+	 * Finds the violations matching the filter field on a pooled thread, then shows them
+	 * unless the filter has changed again meanwhile. Runs on the EDT.
+	 */
+	private void applyFilter() {
+		String filter = StyleResultsModel.normalizeFilter(filterField.getText());
+		List<StyleResultsModel.FileNode> files = model.getFiles();
+		int generation = ++filterGeneration;
+		ApplicationManager.getApplication().executeOnPooledThread(() -> {
+			Map<StyleResultsModel.FileNode, StyleResultsModel.FileNode> matches = StyleResultsModel.filter(files, filter);
+			ApplicationManager.getApplication().invokeLater(() -> {
+				if (generation == filterGeneration) {
+					model.setFilter(filter, files, matches);
+				}
+			});
+		});
+	}
+
+	private void navigate(TreePath path) {
+		if (path == null || !(path.getLastPathComponent() instanceof StyleViolation)) {
+			return;
+		}
+		StyleViolation v = (StyleViolation) path.getLastPathComponent();
+		StyleResultsModel.FileNode file = (StyleResultsModel.FileNode) path.getPathComponent(1);
+		if (file.file != null && file.file.isValid()) {
+			new OpenFileDescriptor(project, file.file, v.getLine() - 1, v.getColumnCharIndex()).navigate(true);
+		}
+	}
+
+	private static class Renderer extends ColoredTreeCellRenderer {
+		@Override
+		public void customizeCellRenderer(@NotNull JTree tree, Object value, boolean selected, boolean expanded,
+				boolean leaf, int row, boolean hasFocus) {
+			if (value instanceof StyleResultsModel.FileNode) {
+				StyleResultsModel.FileNode file = (StyleResultsModel.FileNode) value;
+				setIcon(AllIcons.FileTypes.Java);
+				append(file.displayPath);
+				append("  " + file.count, SimpleTextAttributes.GRAYED_ATTRIBUTES);
+			} else if (value instanceof StyleResultsModel.CheckNode) {
+				StyleResultsModel.CheckNode check = (StyleResultsModel.CheckNode) value;
+				append(check.check, SimpleTextAttributes.REGULAR_BOLD_ATTRIBUTES);
+				append("  " + check.rows.length, SimpleTextAttributes.GRAYED_ATTRIBUTES);
+			} else if (value instanceof StyleViolation) {
+				StyleViolation v = (StyleViolation) value;
+				setIcon(v.getSeverity() == SeverityLevel.ERROR ? AllIcons.General.Warning : AllIcons.General.Information);
+				String location = v.getColumn() != 0 ? v.getLine() + ":" + v.getColumn() : String.valueOf(v.getLine());
+				append(location + "  ", SimpleTextAttributes.GRAYED_ATTRIBUTES);
+				append(v.getMessage());
+			}
+		}
+	}
+}
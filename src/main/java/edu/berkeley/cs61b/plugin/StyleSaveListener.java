@@ -0,0 +1,65 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+
+/**
+ * Queues saved .java files in the project for re-checking, when check-on-save is enabled,
+ * and drops the cached results of deleted files.
+ *
+ * Content changes arrive in bulk, so a save-all or a VCS update that rewrites many
+ * files reaches {@link StyleRecheckQueue} as one burst and is checked in one run.
+ */
+public class StyleSaveListener implements BulkFileListener {
+	private final Project project;
+
+	public StyleSaveListener(Project project) {
+		this.project = project;
+	}
+
+	@Override
+	public void before(@NotNull List<? extends VFileEvent> events) {
+		if (project.isDisposed()) {
+			return;
+		}
+		StyleResultCache cache = project.getServiceIfCreated(StyleResultCache.class);
+		if (cache == null) {
+			return;
+		}
+		for (VFileEvent event : events) {
+			if (event instanceof VFileDeleteEvent) {
+				cache.remove(((VFileDeleteEvent) event).getFile());
+			}
+		}
+	}
+
+	@Override
+	public void after(@NotNull List<? extends VFileEvent> events) {
+		if (!PluginUtils.isCheckOnSave() || project.isDisposed()) {
+			return;
+		}
+		ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(project);
+		StyleRecheckQueue queue = null;
+		for (VFileEvent event : events) {
+			if (!(event instanceof VFileContentChangeEvent)) {
+				continue;
+			}
+			VirtualFile file = event.getFile();
+			if (file.getName().endsWith(".java") && fileIndex.isInContent(file) && !fileIndex.isExcluded(file)) {
+				if (queue == null) {
+					queue = StyleRecheckQueue.getInstance(project);
+				}
+				queue.add(file);
+			}
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package edu.berkeley.cs61b.plugin;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+
+/**
+ * One style violation, as read back from a {@link ViolationStore}. Two violations are
+ * equal if they are the same row of the same store, so the results view can create
+ * them on demand.
+ */
+class StyleViolation {
+	private final ViolationStore store;
+	private final int row;
+	private final String file;
+	private final int line;
+	private final int column;
+	private final int columnCharIndex;
+	private final SeverityLevel severity;
+	private final String check;
+	private final String key;
+	private final String message;
+
+	StyleViolation(ViolationStore store, int row, String file, int line, int column, int columnCharIndex,
+			SeverityLevel severity, String check, String key, String message) {
+		this.store = store;
+		this.row = row;
+		this.file = file;
+		this.line = line;
+		this.column = column;
+		this.columnCharIndex = columnCharIndex;
+		this.severity = severity;
+		this.check = check;
+		this.key = key;
+		this.message = message;
+	}
+
+	int getRow() {
+		return row;
+	}
+
+	/**
+	 * Returns the file name the violation was stored under.
+	 */
+	String getFile() {
+		return file;
+	}
+
+	int getLine() {
+		return line;
+	}
+
+	/**
+	 * Returns the column as Checkstyle reports it, with tabs expanded.
+	 */
+	int getColumn() {
+		return column;
+	}
+
+	/**
+	 * Returns the violation's position in its line in characters, counting from 0.
+	 */
+	int getColumnCharIndex() {
+		return columnCharIndex;
+	}
+
+	/**
+	 * Returns the name of the check that reported this, as given to the store,
+	 * e.g. "JavadocMethod61b" for the results view.
+	 */
+	String getCheck() {
+		return check;
+	}
+
+	String getKey() {
+		return key;
+	}
+
+	String getMessage() {
+		return message;
+	}
+
+	SeverityLevel getSeverity() {
+		return severity;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof StyleViolation)) {
+			return false;
+		}
+		StyleViolation other = (StyleViolation) o;
+		return store == other.store && row == other.row;
+	}
+
+	@Override
+	public int hashCode() {
+		return System.identityHashCode(store) * 31 + row;
+	}
+
+	/**
+	 * Returns the short name of the check that reported e: its id if it has one,
+	 * otherwise its class name without the package and "Check" suffix.
+	 */
+	static String checkName(AuditEvent e) {
+		if (e.getModuleId() != null) {
+			return e.getModuleId();
+		}
+		String name = e.getSourceName();
+		name = name.substring(name.lastIndexOf('.') + 1);
+		if (name.endsWith("Check") && name.length() > "Check".length()) {
+			name = name.substring(0, name.length() - "Check".length());
+		}
+		return name;
+	}
+}
@@ -0,0 +1,236 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.lang.reflect.Field;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jetbrains.annotations.Nullable;
+
+import com.puppycrawl.tools.checkstyle.TreeWalker;
+import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
+
+/**
+ * Measures the time each check of a TreeWalker spends in beginTree, visitToken/leaveToken
+ * and finishTree.
+ *
+ * TreeWalker keeps its checks in private sets, one for all checks and one per token
+ * type, and calls every check of a set in a plain for-each loop. The profiler swaps
+ * each set for a view whose iterator starts a check's clock when it hands the check
+ * out and stops it when the loop asks for the next one, so no check is wrapped or
+ * changed. visitToken and leaveToken iterate the same per-token set and are measured
+ * together; beginTree and finishTree are told apart by being the first and second
+ * pass over the all-checks set within a file.
+ *
+ * Timing only happens between {@link #startFile} and {@link #finishFile}; otherwise
+ * the views just delegate, so a profiled checker costs next to nothing when unused.
+ * A profiler belongs to one checker and so is only used by one thread at a time.
+ */
+class TreeWalkerProfiler {
+	private static final int BEGIN = 0;
+	private static final int TOKENS = 1;
+	private static final int FINISH = 2;
+
+	private final List<AbstractCheck> checks = new ArrayList<>();
+	private final Map<AbstractCheck, Integer> indexes = new IdentityHashMap<>();
+	private final long[][] nanos;
+	private final long[] tokenCalls;
+	private final List<TimedSet> allChecksSets = new ArrayList<>();
+
+	private boolean active;
+	private long fileCheckNanos;
+	private int files;
+	private long parseNanos;
+
+	private TreeWalkerProfiler(Set<AbstractCheck> ordinary, Set<AbstractCheck> comment) {
+		for (AbstractCheck check : ordinary) {
+			register(check);
+		}
+		for (AbstractCheck check : comment) {
+			register(check);
+		}
+		nanos = new long[3][checks.size()];
+		tokenCalls = new long[checks.size()];
+	}
+
+	/**
+	 * Installs a profiler into walker, or returns null if this checkstyle version's
+	 * TreeWalker doesn't have the expected fields.
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	static TreeWalkerProfiler install(TreeWalker walker) {
+		try {
+			Field ordinaryField = field("ordinaryChecks");
+			Field commentField = field("commentChecks");
+			Set<AbstractCheck> ordinary = (Set<AbstractCheck>) ordinaryField.get(walker);
+			Set<AbstractCheck> comment = (Set<AbstractCheck>) commentField.get(walker);
+			Map<Integer, Set<AbstractCheck>> tokenToOrdinary = (Map<Integer, Set<AbstractCheck>>) field("tokenToOrdinaryChecks").get(walker);
+			Map<Integer, Set<AbstractCheck>> tokenToComment = (Map<Integer, Set<AbstractCheck>>) field("tokenToCommentChecks").get(walker);
+
+			TreeWalkerProfiler profiler = new TreeWalkerProfiler(ordinary, comment);
+			TimedSet timedOrdinary = profiler.new TimedSet(ordinary, -1);
+			TimedSet timedComment = profiler.new TimedSet(comment, -1);
+			ordinaryField.set(walker, timedOrdinary);
+			commentField.set(walker, timedComment);
+			profiler.allChecksSets.add(timedOrdinary);
+			profiler.allChecksSets.add(timedComment);
+			tokenToOrdinary.replaceAll((token, set) -> profiler.new TimedSet(set, TOKENS));
+			tokenToComment.replaceAll((token, set) -> profiler.new TimedSet(set, TOKENS));
+			return profiler;
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	void startFile() {
+		active = true;
+		fileCheckNanos = 0;
+		for (TimedSet set : allChecksSets) {
+			set.passes = 0;
+		}
+	}
+
+	/**
+	 * Ends timing of a file whose TreeWalker pass took elapsedNanos in all.
+	 */
+	void finishFile(long elapsedNanos) {
+		active = false;
+		files++;
+		parseNanos += Math.max(0, elapsedNanos - fileCheckNanos);
+	}
+
+	/**
+	 * Adds everything measured so far to timings, and starts over.
+	 */
+	void drainTo(CheckTimings timings) {
+		for (int i = 0; i < checks.size(); i++) {
+			timings.add(moduleName(checks.get(i)), nanos[BEGIN][i], nanos[TOKENS][i], nanos[FINISH][i], tokenCalls[i]);
+			nanos[BEGIN][i] = 0;
+			nanos[TOKENS][i] = 0;
+			nanos[FINISH][i] = 0;
+			tokenCalls[i] = 0;
+		}
+		timings.addFiles(files, parseNanos);
+		files = 0;
+		parseNanos = 0;
+	}
+
+	private void register(AbstractCheck check) {
+		if (!indexes.containsKey(check)) {
+			indexes.put(check, checks.size());
+			checks.add(check);
+		}
+	}
+
+	private static Field field(String name) throws NoSuchFieldException {
+		Field field = TreeWalker.class.getDeclaredField(name);
+		field.setAccessible(true);
+		return field;
+	}
+
+	private static String moduleName(AbstractCheck check) {
+		if (check.getId() != null) {
+			return check.getId();
+		}
+		String name = check.getClass().getSimpleName();
+		return name.endsWith("Check") ? name.substring(0, name.length() - "Check".length()) : name;
+	}
+
+	/**
+	 * A view of one of TreeWalker's check sets that times each check between being
+	 * handed out by the iterator and the loop moving on.
+	 */
+	private class TimedSet extends AbstractSet<AbstractCheck> {
+		private final Set<AbstractCheck> delegate;
+		/** The phase every pass over this set is counted as, or -1 for begin, then finish. */
+		private final int phase;
+		/** Index of each check, in iteration order. */
+		private final int[] order;
+		private int passes;
+
+		TimedSet(Set<AbstractCheck> delegate, int phase) {
+			this.delegate = delegate;
+			this.phase = phase;
+			this.order = new int[delegate.size()];
+			int i = 0;
+			for (AbstractCheck check : delegate) {
+				order[i++] = indexes.get(check);
+			}
+		}
+
+		@Override
+		public int size() {
+			return delegate.size();
+		}
+
+		@Override
+		public boolean add(AbstractCheck check) {
+			throw new UnsupportedOperationException("checks can't be added once profiled");
+		}
+
+		@Override
+		public Iterator<AbstractCheck> iterator() {
+			if (!active) {
+				return delegate.iterator();
+			}
+			int pass;
+			if (phase >= 0) {
+				pass = phase;
+			} else if (passes < 2) {
+				pass = passes++ == 0 ? BEGIN : FINISH;
+			} else {
+				return delegate.iterator();
+			}
+			return new TimedIterator(delegate.iterator(), order, nanos[pass], pass == TOKENS ? tokenCalls : null);
+		}
+	}
+
+	private class TimedIterator implements Iterator<AbstractCheck> {
+		private final Iterator<AbstractCheck> delegate;
+		private final int[] order;
+		private final long[] nanos;
+		private final long[] calls;
+		private int next;
+		private int current = -1;
+		private long start;
+
+		TimedIterator(Iterator<AbstractCheck> delegate, int[] order, long[] nanos, @Nullable long[] calls) {
+			this.delegate = delegate;
+			this.order = order;
+			this.nanos = nanos;
+			this.calls = calls;
+		}
+
+		@Override
+		public boolean hasNext() {
+			stop();
+			return delegate.hasNext();
+		}
+
+		@Override
+		public AbstractCheck next() {
+			stop();
+			AbstractCheck check = delegate.next();
+			current = order[next++];
+			if (calls != null) {
+				calls[current]++;
+			}
+			start = System.nanoTime();
+			return check;
+		}
+
+		private void stop() {
+			if (current >= 0) {
+				long elapsed = System.nanoTime() - start;
+				nanos[current] += elapsed;
+				fileCheckNanos += elapsed;
+				current = -1;
+			}
+		}
+	}
+}
@@ -0,0 +1,381 @@
+package edu.berkeley.cs61b.plugin;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+
+/**
+ * Append-only store of the violations of one run, with a bounded heap footprint.
+ *
+ * Violations are kept as rows of parallel int arrays, with file names, checks and
+ * message keys replaced by ids into tables of distinct strings; only the messages
+ * themselves are kept as Strings. The arrays start small and grow with the run. Once
+ * more than a fixed number of rows are held in memory, they are written to a pair of
+ * temporary files: fixed-size records, and the messages they point to. If writing
+ * fails, the caller can have the store keep the rest of its rows in memory instead. Rows are numbered in the order they were added and can be
+ * read back one at a time or all in order. Thread-safe; {@link #close} deletes the
+ * temporary files.
+ */
+class ViolationStore implements Closeable {
+	/** Rows held in memory before they are written out. */
+	private static final int DEFAULT_MEMORY_ROWS = 1 << 16;
+	/** Rows the arrays have room for at first; they double as needed, up to memoryRows. */
+	private static final int INITIAL_ROWS = 256;
+	/**
+	 * file, line, column, column char index, severity, check and key ids, then the offset
+	 * of the message.
+	 */
+	private static final int RECORD_SIZE = 7 * Integer.BYTES + Long.BYTES;
+	private static final SeverityLevel[] SEVERITIES = SeverityLevel.values();
+
+	private final int memoryRows;
+	private final StringTable files = new StringTable();
+	private final StringTable checks = new StringTable();
+	private final StringTable keys = new StringTable();
+
+	/** Rows [spilled, size) are in memory, at index row - spilled. */
+	private int[] file;
+	private int[] line;
+	private int[] column;
+	private int[] charIndex;
+	private int[] severity;
+	private int[] check;
+	private int[] key;
+	private String[] message;
+	private int spilled;
+	private int size;
+	/** Set once rows are no longer to be written out, e.g. after writing failed. */
+	private boolean inMemoryOnly;
+
+	private Path recordsPath;
+	private Path messagesPath;
+	private FileChannel records;
+	private FileChannel messages;
+	private long messagesEnd;
+	private boolean closed;
+
+	ViolationStore() {
+		this(DEFAULT_MEMORY_ROWS);
+	}
+
+	ViolationStore(int memoryRows) {
+		this.memoryRows = Math.max(1, memoryRows);
+		int capacity = Math.min(INITIAL_ROWS, this.memoryRows);
+		file = new int[capacity];
+		line = new int[capacity];
+		column = new int[capacity];
+		charIndex = new int[capacity];
+		severity = new int[capacity];
+		check = new int[capacity];
+		key = new int[capacity];
+		message = new String[capacity];
+	}
+
+	/**
+	 * Adds a violation at column, as Checkstyle reports it with tabs expanded, which is
+	 * columnCharIndex characters into the line. If the rows in memory had to be written out and that failed,
+	 * they are all still in memory and this one was not added; call
+	 * {@link #keepInMemory} to add it anyway.
+	 *
+	 * @return its row, or -1 if the store was already closed
+	 */
+	synchronized int add(String fileName, int line, int column, int columnCharIndex, SeverityLevel severity,
+			String check, String key, String message) throws IOException {
+		if (closed) {
+			return -1;
+		}
+		int rows = size - spilled;
+		if (rows == this.message.length) {
+			if (rows < memoryRows || inMemoryOnly) {
+				grow();
+			} else {
+				spill();
+			}
+		}
+		int i = size - spilled;
+		this.file[i] = files.id(fileName);
+		this.line[i] = line;
+		this.column[i] = column;
+		this.charIndex[i] = columnCharIndex;
+		this.severity[i] = severity.ordinal();
+		this.check[i] = checks.id(check);
+		this.key[i] = keys.id(key);
+		this.message[i] = message;
+		return size++;
+	}
+
+	synchronized int size() {
+		return size;
+	}
+
+	synchronized boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * Keeps all rows added from now on in memory, however many there are.
+	 */
+	synchronized void keepInMemory() {
+		inMemoryOnly = true;
+	}
+
+	synchronized boolean isInMemoryOnly() {
+		return inMemoryOnly;
+	}
+
+	/**
+	 * Reads back one row.
+	 */
+	synchronized StyleViolation get(int row) throws IOException {
+		if (closed) {
+			throw new IOException("violation store is closed");
+		}
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("row " + row + " of " + size);
+		}
+		if (row >= spilled) {
+			return inMemory(row);
+		}
+		ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+		readFully(records, record, (long) row * RECORD_SIZE);
+		record.flip();
+		int fileId = record.getInt();
+		int lineNo = record.getInt();
+		int columnNo = record.getInt();
+		int columnCharIndex = record.getInt();
+		int severityId = record.getInt();
+		int checkId = record.getInt();
+		int keyId = record.getInt();
+		long offset = record.getLong();
+
+		ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+		readFully(messages, length, offset);
+		length.flip();
+		ByteBuffer text = ByteBuffer.allocate(length.getInt());
+		readFully(messages, text, offset + Integer.BYTES);
+		return new StyleViolation(this, row, files.get(fileId), lineNo, columnNo, columnCharIndex,
+				SEVERITIES[severityId], checks.get(checkId), keys.get(keyId),
+				new String(text.array(), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Passes every row to visitor, in order.
+	 */
+	synchronized void forEach(Visitor visitor) throws IOException {
+		if (closed) {
+			throw new IOException("violation store is closed");
+		}
+		if (spilled > 0) {
+			try (DataInputStream recordsIn = open(recordsPath); DataInputStream messagesIn = open(messagesPath)) {
+				for (int row = 0; row < spilled; row++) {
+					int fileId = recordsIn.readInt();
+					int lineNo = recordsIn.readInt();
+					int columnNo = recordsIn.readInt();
+					int columnCharIndex = recordsIn.readInt();
+					int severityId = recordsIn.readInt();
+					int checkId = recordsIn.readInt();
+					int keyId = recordsIn.readInt();
+					recordsIn.readLong();
+					byte[] text = new byte[messagesIn.readInt()];
+					messagesIn.readFully(text);
+					visitor.visit(new StyleViolation(this, row, files.get(fileId), lineNo, columnNo, columnCharIndex,
+							SEVERITIES[severityId], checks.get(checkId), keys.get(keyId),
+							new String(text, StandardCharsets.UTF_8)));
+				}
+			}
+		}
+		for (int row = spilled; row < size; row++) {
+			visitor.visit(inMemory(row));
+		}
+	}
+
+	/**
+	 * Returns the rows whose message or message key contains text, ignoring case; text
+	 * must already be lower case. Written-out rows are read in one pass over the
+	 * temporary files without holding the store's lock, so readers of single rows, such
+	 * as the results tree, are not kept waiting meanwhile.
+	 */
+	BitSet rowsMatching(String text) throws IOException {
+		BitSet rows = new BitSet();
+		BitSet matchingKeys = new BitSet();
+		int count;
+		Path recordsFile;
+		Path messagesFile;
+		synchronized (this) {
+			if (closed) {
+				throw new IOException("violation store is closed");
+			}
+			for (int id = 0; id < keys.size(); id++) {
+				if (contains(keys.get(id), text)) {
+					matchingKeys.set(id);
+				}
+			}
+			for (int row = spilled; row < size; row++) {
+				int i = row - spilled;
+				if (matchingKeys.get(key[i]) || contains(message[i], text)) {
+					rows.set(row);
+				}
+			}
+			count = spilled;
+			recordsFile = recordsPath;
+			messagesFile = messagesPath;
+		}
+		if (count > 0) {
+			// rows below count were written before the lock was released and never change
+			try (DataInputStream recordsIn = open(recordsFile); DataInputStream messagesIn = open(messagesFile)) {
+				for (int row = 0; row < count; row++) {
+					recordsIn.skipBytes(6 * Integer.BYTES);
+					int keyId = recordsIn.readInt();
+					recordsIn.skipBytes(Long.BYTES);
+					byte[] bytes = new byte[messagesIn.readInt()];
+					messagesIn.readFully(bytes);
+					if (matchingKeys.get(keyId) || contains(new String(bytes, StandardCharsets.UTF_8), text)) {
+						rows.set(row);
+					}
+				}
+			}
+		}
+		return rows;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		if (records != null) {
+			records.close();
+			messages.close();
+			Files.deleteIfExists(recordsPath);
+			Files.deleteIfExists(messagesPath);
+		}
+	}
+
+	private StyleViolation inMemory(int row) {
+		int i = row - spilled;
+		return new StyleViolation(this, row, files.get(file[i]), line[i], column[i], charIndex[i],
+				SEVERITIES[severity[i]], checks.get(check[i]), keys.get(key[i]), message[i]);
+	}
+
+	private static boolean contains(String s, String text) {
+		return s.toLowerCase(Locale.ROOT).contains(text);
+	}
+
+	/** Doubles the room for rows in memory, up to memoryRows unless all rows are to stay there. */
+	private void grow() {
+		int rows = message.length;
+		int capacity = inMemoryOnly ? rows * 2 : Math.min(rows * 2, memoryRows);
+		if (capacity < 0) {
+			throw new OutOfMemoryError("too many style violations");
+		}
+		file = Arrays.copyOf(file, capacity);
+		line = Arrays.copyOf(line, capacity);
+		column = Arrays.copyOf(column, capacity);
+		charIndex = Arrays.copyOf(charIndex, capacity);
+		severity = Arrays.copyOf(severity, capacity);
+		check = Arrays.copyOf(check, capacity);
+		key = Arrays.copyOf(key, capacity);
+		message = Arrays.copyOf(message, capacity);
+	}
+
+	/** Appends the rows in memory to the temporary files and empties the arrays. */
+	private void spill() throws IOException {
+		if (records == null) {
+			recordsPath = Files.createTempFile("cs61b-style", ".records");
+			messagesPath = Files.createTempFile("cs61b-style", ".messages");
+			recordsPath.toFile().deleteOnExit();
+			messagesPath.toFile().deleteOnExit();
+			records = FileChannel.open(recordsPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			messages = FileChannel.open(messagesPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		}
+		int count = size - spilled;
+		ByteBuffer recordBuffer = ByteBuffer.allocate(count * RECORD_SIZE);
+		ByteArrayOutputStream messageBytes = new ByteArrayOutputStream();
+		DataOutputStream messageOut = new DataOutputStream(messageBytes);
+		for (int i = 0; i < count; i++) {
+			recordBuffer.putInt(file[i]).putInt(line[i]).putInt(column[i]).putInt(charIndex[i]).putInt(severity[i])
+					.putInt(check[i]).putInt(key[i]).putLong(messagesEnd + messageOut.size());
+			byte[] text = message[i].getBytes(StandardCharsets.UTF_8);
+			messageOut.writeInt(text.length);
+			messageOut.write(text);
+		}
+		recordBuffer.flip();
+		writeFully(records, recordBuffer, (long) spilled * RECORD_SIZE);
+		writeFully(messages, ByteBuffer.wrap(messageBytes.toByteArray()), messagesEnd);
+		// only now are the rows safely on disk; until here a failure leaves them all in memory
+		Arrays.fill(message, 0, count, null);
+		messagesEnd += messageOut.size();
+		spilled = size;
+	}
+
+	private static DataInputStream open(Path path) throws IOException {
+		InputStream in = Files.newInputStream(path);
+		return new DataInputStream(new BufferedInputStream(in));
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			int n = channel.read(buffer, position);
+			if (n < 0) {
+				throw new EOFException("violation store file is truncated");
+			}
+			position += n;
+		}
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+	}
+
+	/** Receives the rows of a store from {@link #forEach}. */
+	interface Visitor {
+		void visit(StyleViolation violation) throws IOException;
+	}
+
+	/** Distinct strings, numbered in the order they were first seen. */
+	private static class StringTable {
+		private final Map<String, Integer> ids = new HashMap<>();
+		private final List<String> strings = new ArrayList<>();
+
+		int id(String s) {
+			Integer id = ids.get(s);
+			if (id == null) {
+				id = strings.size();
+				ids.put(s, id);
+				strings.add(s);
+			}
+			return id;
+		}
+
+		String get(int id) {
+			return strings.get(id);
+		}
+
+		int size() {
+			return strings.size();
+		}
+	}
+}
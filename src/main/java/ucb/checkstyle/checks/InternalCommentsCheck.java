@@ -25,16 +25,13 @@ import com.puppycrawl.tools.checkstyle.api.TextBlock;
 
 import org.apache.commons.beanutils.ConversionException;
 
-import java.util.Map;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Stack;
-import java.util.ArrayList;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
 import java.util.regex.PatternSyntaxException;
 
-import static java.util.Collections.sort;
-
 /**
  * Checks that internal comments comply with configurable
  * restrictions.
@@ -42,11 +39,20 @@ import static java.util.Collections.sort;
  */
 public class InternalCommentsCheck extends AbstractCheck
 {
-    /** List of regions of file, giving line numbers of the starts of
+    /** All SpanTypes, by ordinal. */
+    private static final SpanType[] SPAN_TYPES = SpanType.values();
+
+    /** Regions of file, giving line numbers of the starts of
      *  methods, method bodies, classes, static initializers, and
-     *  constructors.
+     *  constructors, in order of starting line.  Spans with the same
+     *  starting line are in the order they were added.  The ith span
+     *  starts at spanStarts[i] and has type SPAN_TYPES[spanTypes[i]].
      */
-    private final List<Span> spans = new ArrayList<Span>();
+    private int[] spanStarts = new int[64];
+    /** Types of the spans, as ordinals of SpanType. */
+    private int[] spanTypes = new int[64];
+    /** Number of spans in spanStarts and spanTypes. */
+    private int spanCount;
 
     /** Stack of region types surrounding tokens currently being
      *  traversed. Needed to handle nested classes. */
@@ -62,10 +68,10 @@ public class InternalCommentsCheck extends AbstractCheck
     /** Allowed formats and placements of C++-style (//) comments. Set by
      *  setAllowedCppFormats. */
     private String allowedCppFormats = DEFAULT_ALLOWED_FORMATS;
-    /** Translation of allowedCFormats into a list of context/regexp pairs. */
-    private List<AllowPattern> allowedCComments;
-    /** Translation of allowedCppFormats into a list of context/regexp pairs. */
-    private List<AllowPattern> allowedCppComments;
+    /** Translation of allowedCFormats into a table of context/regexp pairs. */
+    private AllowTable allowedCComments;
+    /** Translation of allowedCppFormats into a table of context/regexp pairs. */
+    private AllowTable allowedCppComments;
 
     /** Describe set of allowed places and formats for C-style comments.
      *
@@ -132,21 +138,23 @@ public class InternalCommentsCheck extends AbstractCheck
             allowedCComments = parseFormatDescriptor (allowedCFormats);
         if (allowedCppComments == null)
             allowedCppComments = parseFormatDescriptor (allowedCppFormats);
-        spans.clear();
+        spanCount = 0;
         context.clear();
-        spans.add(new Span(SpanType.PACKAGE,1));
+        addSpan(SpanType.PACKAGE, 1);
         context.push(SpanType.PACKAGE);
     }
 
     @Override
     public void finishTree(DetailAST ast)
     {
-        sort(spans);
-
-        for (TextBlock text : getCCommentList()) {
-            checkComment(text, "/*", allowedCComments);
+        for (List<TextBlock> list : getFileContents()
+                .getBlockComments().values()) {
+            for (TextBlock text : list) {
+                checkComment(text, "/*", allowedCComments);
+            }
         }
-        for (TextBlock text : getCppCommentList()) {
+        for (TextBlock text : getFileContents()
+                .getSingleLineComments().values()) {
             checkComment(text, "//", allowedCppComments);
         }
     }
@@ -162,23 +170,23 @@ public class InternalCommentsCheck extends AbstractCheck
         int stmt0Line = stmt0 == null ? 0 : stmt0.getLineNo();
         int endLine = stmt0 == null ? 0 : body.getLastChild().getLineNo() + 1;
         if (endLine != 0)
-            spans.add(new Span(context.peek(), endLine));
+            addSpan(context.peek(), endLine);
         switch (type) {
             case TokenTypes.CLASS_DEF:
-                spans.add(new Span(SpanType.CLASS, line));
+                addSpan(SpanType.CLASS, line);
                 context.push (SpanType.CLASS);
                 break;
             case TokenTypes.METHOD_DEF: case TokenTypes.CTOR_DEF:
                 if (stmt0 != null) {
-                    spans.add(new Span(SpanType.METHOD_OR_CTOR, line));
-                    spans.add(new Span(SpanType.PRESTMTS, bodyLine));
-                    spans.add(new Span(SpanType.STMTS, stmt0Line));
+                    addSpan(SpanType.METHOD_OR_CTOR, line);
+                    addSpan(SpanType.PRESTMTS, bodyLine);
+                    addSpan(SpanType.STMTS, stmt0Line);
                 }
                 context.push (SpanType.STMTS);
                 break;
             case TokenTypes.STATIC_INIT:
-                spans.add(new Span(SpanType.STATIC_INIT, line));
-                spans.add(new Span(SpanType.STMTS, stmt0Line));
+                addSpan(SpanType.STATIC_INIT, line);
+                addSpan(SpanType.STMTS, stmt0Line);
                 context.push (SpanType.STMTS);
                 break;
             default:
@@ -192,54 +200,51 @@ public class InternalCommentsCheck extends AbstractCheck
     }
 
     /**
-     * Get the last span that begins at or before line.
+     * Add a span of type starting at line start, after any spans that
+     * start at or before it.  Spans mostly arrive in order; only the
+     * ones following an enclosing class or body, which are added when
+     * it is entered, are ahead, so few spans ever need to move.
+     *
+     * @param type type of the region.
+     * @param start starting line number of the region.
+     */
+    private void addSpan(SpanType type, int start)
+    {
+        if (spanCount == spanStarts.length) {
+            spanStarts = Arrays.copyOf(spanStarts, 2 * spanCount);
+            spanTypes = Arrays.copyOf(spanTypes, 2 * spanCount);
+        }
+        int i = spanCount;
+        while (i > 0 && spanStarts[i - 1] > start)
+            i -= 1;
+        System.arraycopy(spanStarts, i, spanStarts, i + 1, spanCount - i);
+        System.arraycopy(spanTypes, i, spanTypes, i + 1, spanCount - i);
+        spanStarts[i] = start;
+        spanTypes[i] = type.ordinal();
+        spanCount += 1;
+    }
+
+    /**
+     * Get the type of the last span that begins at or before line.
      *
      * @param line line number to search for.
-     * @return the last span at or before line line.
+     * @return the type of the last span at or before line line.
      */
-    private Span getSpan(int line)
+    private SpanType getSpanType(int line)
     {
-        assert line > 0 && !spans.isEmpty();
+        assert line > 0 && spanCount > 0;
         int low, high;
         low = 0;
-        high = spans.size();
+        high = spanCount;
         while (low < high - 1) {
             int m = (low + high) / 2;
-            if (line < spans.get(m).start) {
+            if (line < spanStarts[m]) {
                 high = m;
             } else {
                 low = m;
             }
         }
-        return spans.get(low);
-    }
-
-    /**
-     * Get list of all C++-style comments in current file.
-     *
-     * @return list of TextBlocks containing text of all C++ comment
-     * contents.
-     */
-    private List<TextBlock> getCppCommentList()
-    {
-        return new ArrayList<TextBlock>(getFileContents()
-                .getSingleLineComments().values());
-    }
-
-    /**
-     * Get list of all C-style comments in current file.
-     *
-     * @return list of TextBlocks containing text of all C comment
-     * contents.
-     */
-    private List<TextBlock> getCCommentList()
-    {
-        List<TextBlock> result = new ArrayList<TextBlock>();
-        for (List<TextBlock> list : getFileContents()
-                .getBlockComments().values()) {
-            result.addAll(result.size(), list);
-        }
-        return result;
+        return SPAN_TYPES[spanTypes[low]];
     }
 
     /** Describes a single item in an argument to setAllowedCFormat or
@@ -248,16 +253,15 @@ public class InternalCommentsCheck extends AbstractCheck
             ("\\G\\s*(class|package|init|func|(?:pre)?stmts)\\b\\s*"
                     + "(?:([^\\w\\s])(.*?)\\2)?|\\s*(\\S)");
 
-    /** Convert a string to a list of allowed context/regexp pairs.
+    /** Convert a string to a table of allowed context/regexp pairs.
      *
      * @param desc format descriptor as described for setAllowedCFormat.
-     * @return corresponding list of context/regexp pairs.
+     * @return corresponding table of context/regexp pairs.
      */
-    private List<AllowPattern> parseFormatDescriptor(String desc)
+    private AllowTable parseFormatDescriptor(String desc)
     {
-        List<AllowPattern> allowed = new ArrayList<AllowPattern>();
+        AllowTable allowed = new AllowTable();
         Matcher inputs = ELEMENT_PATTERN.matcher(desc);
-        allowed.clear();
         while (inputs.find()) {
             if (inputs.group(4) != null)
                 throw new ConversionException("trailing garbage in format: '"
@@ -291,42 +295,29 @@ public class InternalCommentsCheck extends AbstractCheck
         return allowed;
     }
 
-    /** Check that a comment is allowed according to a list of allowed 
+    /** Check that a comment is allowed according to a table of allowed
      *  context/format pairs, and log if it is not.
      *
      * @param comment comment to check.
      * @param id a string used in error messages to identify the kind of 
      *        comment.
-     * @param allowed list of allowed context/pattern pairs.
+     * @param allowed table of allowed context/pattern pairs.
      */
     private void checkComment(TextBlock comment, String id,
-                              List<AllowPattern> allowed)
+                              AllowTable allowed)
     {
         int startLine = comment.getStartLineNo();
         int startCol = comment.getStartColNo();
 
-        Span context = getSpan(startLine);
-
         if (allowed.isEmpty())
             log(startLine, startCol, "comment.neverAllowed", id);
         else {
-            for (AllowPattern desc : allowed) {
-                if (desc.type == context.type) {
-                    if (desc.patn != null) {
-                        StringBuffer text = new StringBuffer();
-                        for (String line :  comment.getText()) {
-                            text.append(line);
-                            text.append("\n");
-                        }
-                        String comment1 = text.toString();
-                        if (!desc.patn.matcher(comment1).matches()) {
-                            log(startLine, startCol, "comment.badFormat", id);
-                        }
-                    }
-                    return;
-                }
-            }
-            log(startLine, startCol, "comment.notAllowed", id);
+            AllowPattern desc = allowed.get(getSpanType(startLine));
+            if (desc == null)
+                log(startLine, startCol, "comment.notAllowed", id);
+            else if (desc.patn != null
+                     && !desc.matches(new CommentText(comment.getText())))
+                log(startLine, startCol, "comment.badFormat", id);
         }
     }
 
@@ -351,40 +342,132 @@ public class InternalCommentsCheck extends AbstractCheck
         STMTS;
     }
 
-    /** The beginning point of a region of text, indicating its
-     *  type, as indicated by a SpanType. */
-    private static class Span implements Comparable<Span>
-    {
+    /** Describes a context and the comments allowed there. */
+    private static class AllowPattern {
+        AllowPattern(SpanType type0, Pattern patn0) {
+            type = type0;
+            patn = patn0;
+        }
+
         /**
-         * Describe a region of type starting at line start.
+         * Return true iff text matches patn, which must not be null.
+         * The matcher is reused from comment to comment.
          *
-         * @param type0 type of this region (method, class, body,
-         * etc.).
-         * @param start0 starting line number of region.
+         * @param text the text of a comment.
+         * @return whether text matches in full.
          */
-        Span(SpanType type0, int start0) {
-            type = type0;
-            start = start0;
+        boolean matches(CharSequence text) {
+            if (matcher == null)
+                matcher = patn.matcher(text);
+            else
+                matcher.reset(text);
+            boolean result = matcher.matches();
+            matcher.reset("");
+            return result;
         }
 
-        /* @Override */
-        public int compareTo(Span x) {
-            return start - x.start;
+        SpanType type;
+        Pattern patn;
+        /** Matcher of patn, once one is needed. */
+        private Matcher matcher;
+    }
+
+    /** The allowed context/format pairs of a format descriptor,
+     *  indexed by context. */
+    private static class AllowTable {
+        /**
+         * Add desc, unless its context already has a pair: as in the
+         * descriptor, the first pair for a context is the one that counts.
+         *
+         * @param desc a context/format pair.
+         */
+        void add(AllowPattern desc) {
+            empty = false;
+            if (byType[desc.type.ordinal()] == null)
+                byType[desc.type.ordinal()] = desc;
         }
 
-        final SpanType type;
-        final int start;
+        /**
+         * Get the pair for context type.
+         *
+         * @param type a context.
+         * @return the allowed format in type, or null if comments are not
+         *         allowed there.
+         */
+        AllowPattern get(SpanType type) {
+            return byType[type.ordinal()];
+        }
+
+        /**
+         * Return true iff the descriptor allowed comments in no context.
+         *
+         * @return whether the table is empty.
+         */
+        boolean isEmpty() {
+            return empty;
+        }
+
+        /** Pair for each context, by ordinal; null where not allowed. */
+        private final AllowPattern[] byType =
+            new AllowPattern[SPAN_TYPES.length];
+        /** True until a pair is added. */
+        private boolean empty = true;
     }
 
-    /** Describes a context and the comments allowed there. */
-    private static class AllowPattern {
-        AllowPattern(SpanType type0, Pattern patn0) {
-            type = type0;
-            patn = patn0;
+    /** The text of a comment as matched against a format: its lines,
+     *  each followed by a newline.  Reads the lines in place rather
+     *  than copying them into one string. */
+    private static class CommentText implements CharSequence {
+        /**
+         * Describe the text of the comment with lines lines0.
+         *
+         * @param lines0 the lines of the comment.
+         */
+        CommentText(String[] lines0) {
+            lines = lines0;
+            starts = new int[lines0.length + 1];
+            for (int i = 0; i < lines0.length; i += 1)
+                starts[i + 1] = starts[i] + lines0[i].length() + 1;
         }
 
-        SpanType type;
-        Pattern patn;
+        /* @Override */
+        public int length() {
+            return starts[lines.length];
+        }
+
+        /* @Override */
+        public char charAt(int index) {
+            if (index < 0 || index >= length())
+                throw new IndexOutOfBoundsException("index " + index);
+            if (index < starts[line] || index >= starts[line + 1]) {
+                int k = Arrays.binarySearch(starts, index);
+                line = k >= 0 ? k : -k - 2;
+            }
+            int col = index - starts[line];
+            return col < lines[line].length() ? lines[line].charAt(col)
+                : '\n';
+        }
+
+        /* @Override */
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(length());
+            for (String line0 : lines) {
+                text.append(line0).append('\n');
+            }
+            return text.toString();
+        }
+
+        /** The lines of the comment. */
+        private final String[] lines;
+        /** Index of the start of each line, and then the length. */
+        private final int[] starts;
+        /** Line of the last character read. */
+        private int line;
     }
 
 }
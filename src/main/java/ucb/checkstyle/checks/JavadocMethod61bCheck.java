@@ -152,6 +152,13 @@ public class JavadocMethod61bCheck extends AbstractCheck {
     private static final Pattern MATCH_JAVADOC_NOARG_CURLY =
             CommonUtil.createPattern("\\{\\s*@(inheritDoc)\\s*\\}");
 
+    /** Names of setter methods. */
+    private static final Pattern SETTER_NAME = Pattern.compile("^set[A-Z].*");
+
+    /** Names of getter methods. */
+    private static final Pattern GETTER_NAME =
+            Pattern.compile("^(is|get)[A-Z].*");
+
     /** Maximum children allowed * */
     private static final int MAX_CHILDREN = 7;
 
@@ -173,6 +180,12 @@ public class JavadocMethod61bCheck extends AbstractCheck {
     /** Name of current class. */
     private String currentClassName;
 
+    /** Package of the current file, used to resolve documented exceptions. */
+    private String packageName;
+
+    /** Imports of the current file, used to resolve documented exceptions. */
+    private final Set<String> imports = Sets.newHashSet();
+
     /**
      * controls whether to allow documented exceptions that are not declared if
      * they are a subclass of java.lang.RuntimeException.
@@ -434,6 +447,44 @@ public class JavadocMethod61bCheck extends AbstractCheck {
         return true;
     }
 
+    @Override
+    public void beginTree(DetailAST rootAST) {
+        packageName = null;
+        imports.clear();
+        currentClassName = "";
+    }
+
+    @Override
+    public final void visitToken(DetailAST ast) {
+        switch (ast.getType()) {
+            case TokenTypes.PACKAGE_DEF:
+                packageName = FullIdent.createFullIdent(
+                        ast.getLastChild().getPreviousSibling()).getText();
+                break;
+            case TokenTypes.IMPORT:
+                imports.add(FullIdent.createFullIdentBelow(ast).getText());
+                break;
+            case TokenTypes.CLASS_DEF:
+            case TokenTypes.INTERFACE_DEF:
+            case TokenTypes.ENUM_DEF:
+                processClass(ast);
+                break;
+            default:
+                processAST(ast);
+                break;
+        }
+    }
+
+    @Override
+    public final void leaveToken(DetailAST ast) {
+        if (ast.getType() == TokenTypes.CLASS_DEF
+                || ast.getType() == TokenTypes.INTERFACE_DEF
+                || ast.getType() == TokenTypes.ENUM_DEF) {
+            currentClassName = currentClassName.substring(0,
+                    currentClassName.lastIndexOf('$'));
+        }
+    }
+
     protected final void processAST(DetailAST ast) {
         if ((ast.getType() == TokenTypes.METHOD_DEF || ast.getType() == TokenTypes.CTOR_DEF)
                 && getMethodsNumberOfLine(ast) <= minLineCount
@@ -1050,18 +1101,71 @@ public class JavadocMethod61bCheck extends AbstractCheck {
      */
     private boolean exceptionMatchedByClass(final List<ExceptionInfo> aThrows,
                                             final Class<?> aClazz) {
+        if (aClazz == null) {
+            return false;
+        }
         for (ExceptionInfo ei : aThrows) {
-            if (aClazz == ei.getClass()) {
+            final Class<?> declared = resolveClass(ei.getName().getText());
+            if (aClazz == declared) {
                 ei.setFound();
                 return true;
             } else if (allowThrowsTagsForSubclasses
-                    && isSubclass(aClazz, ei.getClass())) {
+                    && isSubclass(aClazz, declared)) {
                 return true;
             }
         }
         return false;
     }
 
+    /**
+     * Return the class named aName as written in the current file: a
+     * fully qualified name, a single-type import, the file's package,
+     * java.lang, or an on-demand import, in that order.
+     *
+     * @param aName the class name as written.
+     * @return the class, or null if it cannot be loaded.
+     */
+    private Class<?> resolveClass(final String aName) {
+        if (aName.indexOf('.') >= 0) {
+            return loadClass(aName);
+        }
+        final String suffix = "." + aName;
+        for (String imp : imports) {
+            if (imp.endsWith(suffix)) {
+                return loadClass(imp);
+            }
+        }
+        Class<?> clazz = null;
+        if (packageName != null) {
+            clazz = loadClass(packageName + suffix);
+        }
+        if (clazz == null) {
+            clazz = loadClass("java.lang" + suffix);
+        }
+        for (Iterator<String> it = imports.iterator();
+             clazz == null && it.hasNext();) {
+            final String imp = it.next();
+            if (imp.endsWith(".*")) {
+                clazz = loadClass(imp.substring(0, imp.length() - 2) + suffix);
+            }
+        }
+        return clazz;
+    }
+
+    /**
+     * Load the class aName without initializing it.
+     *
+     * @param aName fully qualified class name.
+     * @return the class, or null if it cannot be loaded.
+     */
+    private Class<?> loadClass(final String aName) {
+        try {
+            return Class.forName(aName, false, getClass().getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
     /**
      * Checks a set of tags for matching throws.
      *
@@ -1088,18 +1192,21 @@ public class JavadocMethod61bCheck extends AbstractCheck {
             final Token token = new Token(tag.getFirstArg(), tag.getLineNo(), tag
                     .getColumnNo());
             final ClassInfo documentedCI = new ClassInfo(token);
+            if (exceptionMatchedByName(aThrows,
+                    documentedCI.getName().getText())) {
+                continue;
+            }
 
-            if (!exceptionMatchedByName(aThrows,
-                    documentedCI.getName().getText())
-                    && !exceptionMatchedByClass(aThrows,
-                    documentedCI.getClass())) {
+            final Class<?> documentedClass =
+                    resolveClass(documentedCI.getName().getText());
+            if (!exceptionMatchedByClass(aThrows, documentedClass)) {
                 // Handle extra JavadocTag.
                 boolean reqd = true;
                 if (allowUndeclaredRTE) {
-                    reqd = !isUnchecked(documentedCI.getClass());
+                    reqd = !isUnchecked(documentedClass);
                 }
 
-                if (reqd) {
+                if (reqd && validateThrows) {
                     log(tag.getLineNo(), tag.getColumnNo(),
                             "javadoc.unusedTag",
                             JavadocTagInfo.THROWS.getText(), tag.getFirstArg());
@@ -1166,7 +1273,7 @@ public class JavadocMethod61bCheck extends AbstractCheck {
         // Check the name matches format setX...
         final DetailAST type = ast.findFirstToken(TokenTypes.TYPE);
         final String name = type.getNextSibling().getText();
-        if (!name.matches("^set[A-Z].*")) { // Depends on JDK 1.4
+        if (!SETTER_NAME.matcher(name).matches()) {
             return false;
         }
 
@@ -1218,7 +1325,7 @@ public class JavadocMethod61bCheck extends AbstractCheck {
         // check that the format isX is only used with a boolean type.
         final DetailAST type = ast.findFirstToken(TokenTypes.TYPE);
         final String name = type.getNextSibling().getText();
-        if (!name.matches("^(is|get)[A-Z].*")) { // Depends on JDK 1.4
+        if (!GETTER_NAME.matcher(name).matches()) {
             return false;
         }
 
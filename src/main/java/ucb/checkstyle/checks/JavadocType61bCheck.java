@@ -49,6 +49,9 @@ import org.apache.commons.beanutils.ConversionException;
 public class JavadocType61bCheck
         extends AbstractCheck
 {
+    /** the argument of a param tag for a type parameter */
+    private static final Pattern TYPE_PARAM_ARG =
+            Pattern.compile("\\s*<([^>]+)>.*");
     /** the scope to check for */
     private Scope mScope = Scope.PRIVATE;
     /** the visibility scope where Javadoc comments shouldn't be checked **/
@@ -308,14 +311,14 @@ public class JavadocType61bCheck
             final List<JavadocTag> aTags,
             final List<String> aTypeParamNames)
     {
-        final Pattern pattern = Pattern.compile("\\s*<([^>]+)>.*");
         for (int i = aTags.size() - 1; i >= 0; i--) {
             final JavadocTag tag = aTags.get(i);
             if (tag.isParamTag()) {
 
                 if (tag.getFirstArg() != null) {
 
-                    final Matcher matcher = pattern.matcher(tag.getFirstArg());
+                    final Matcher matcher =
+                            TYPE_PARAM_ARG.matcher(tag.getFirstArg());
                     String typeParamName = null;
 
                     if (matcher.matches()) {